@@ -0,0 +1,214 @@
+package me.mehboss.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.CraftItemEvent;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.inventory.InventoryType.SlotType;
+import org.bukkit.event.inventory.PrepareItemCraftEvent;
+import org.bukkit.inventory.CraftingInventory;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.Recipe;
+
+/**
+ * A player at a crafting table, without a server. The table keeps live item
+ * references like the server's inventory mirrors do, so listeners that change
+ * stack amounts in place behave as they would in game. Everything the player
+ * receives or drops is counted.
+ */
+public class HeadlessCrafter {
+
+	// slot 0 is the result, 1-9 the matrix
+	private final ItemStack[] table = new ItemStack[10];
+	private final String name;
+	private final Player player;
+	private final CraftingInventory inventory;
+	private final InventoryView view;
+
+	private int received = 0;
+	private int dropped = 0;
+
+	public HeadlessCrafter(String name) {
+		this.name = name;
+		UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+
+		Map<String, Function<Object[], Object>> tableAnswers = new HashMap<>();
+		tableAnswers.put("getType", args -> InventoryType.WORKBENCH);
+		tableAnswers.put("getSize", args -> table.length);
+		tableAnswers.put("getResult", args -> table[0]);
+		tableAnswers.put("setResult", args -> table[0] = (ItemStack) args[0]);
+		tableAnswers.put("getMatrix", args -> Arrays.copyOfRange(table, 1, table.length));
+		tableAnswers.put("getItem", args -> table[(Integer) args[0]]);
+		tableAnswers.put("setItem", args -> table[(Integer) args[0]] = (ItemStack) args[1]);
+		tableAnswers.put("getContents", args -> table.clone());
+		tableAnswers.put("getViewers", args -> new ArrayList<HumanEntity>());
+		inventory = HeadlessServer.stub(CraftingInventory.class, tableAnswers);
+
+		Map<String, Function<Object[], Object>> inventoryAnswers = new HashMap<>();
+		inventoryAnswers.put("addItem", args -> {
+			for (ItemStack item : (ItemStack[]) args[0])
+				received += item.getAmount();
+			return new HashMap<Integer, ItemStack>();
+		});
+		PlayerInventory playerInventory = HeadlessServer.stub(PlayerInventory.class, inventoryAnswers);
+
+		Map<String, Function<Object[], Object>> worldAnswers = new HashMap<>();
+		worldAnswers.put("getName", args -> "world");
+		worldAnswers.put("dropItem", args -> {
+			dropped += ((ItemStack) args[1]).getAmount();
+			return null;
+		});
+		World world = HeadlessServer.stub(World.class, worldAnswers);
+
+		Map<String, Function<Object[], Object>> playerAnswers = new HashMap<>();
+		playerAnswers.put("getName", args -> name);
+		playerAnswers.put("getUniqueId", args -> uuid);
+		playerAnswers.put("hasPermission", args -> true);
+		playerAnswers.put("isOp", args -> true);
+		playerAnswers.put("getInventory", args -> playerInventory);
+		playerAnswers.put("getWorld", args -> world);
+		player = HeadlessServer.stub(Player.class, playerAnswers);
+
+		view = new InventoryView() {
+			@Override
+			public Inventory getTopInventory() {
+				return inventory;
+			}
+
+			@Override
+			public Inventory getBottomInventory() {
+				return playerInventory;
+			}
+
+			@Override
+			public HumanEntity getPlayer() {
+				return player;
+			}
+
+			@Override
+			public InventoryType getType() {
+				return InventoryType.WORKBENCH;
+			}
+
+			@Override
+			public String getTitle() {
+				return "Crafting";
+			}
+		};
+	}
+
+	/**
+	 * Puts an item in the crafting matrix
+	 *
+	 * @param slot the matrix index (0-8)
+	 * @param item the item, null to empty the slot
+	 */
+	public void place(int slot, ItemStack item) {
+		table[slot + 1] = item;
+	}
+
+	/**
+	 * Sets what the server itself would show as result, before the plugin sees
+	 * the grid
+	 *
+	 * @param result the vanilla or Bukkit recipe result, null for none
+	 */
+	public void setServerResult(ItemStack result) {
+		table[0] = result;
+	}
+
+	/**
+	 * Empties the table
+	 */
+	public void clear() {
+		Arrays.fill(table, null);
+	}
+
+	/**
+	 * Getter for the event the server fires whenever the matrix changes
+	 *
+	 * @returns a new PrepareItemCraftEvent for the table
+	 */
+	public PrepareItemCraftEvent prepare() {
+		return new PrepareItemCraftEvent(inventory, view, false);
+	}
+
+	/**
+	 * Getter for the event of shift clicking the result
+	 *
+	 * @param recipe the Bukkit recipe the server matched, can be null
+	 * @returns a new CraftItemEvent for the table
+	 */
+	public CraftItemEvent shiftClick(Recipe recipe) {
+		return new CraftItemEvent(recipe, view, SlotType.RESULT, 0, ClickType.SHIFT_LEFT,
+				InventoryAction.MOVE_TO_OTHER_INVENTORY);
+	}
+
+	/**
+	 * Getter for the result slot
+	 *
+	 * @returns the result, can be null or air
+	 */
+	public ItemStack getResult() {
+		ItemStack result = table[0];
+		return result == null || result.getType() == Material.AIR ? null : result;
+	}
+
+	/**
+	 * Getter for checking if the matrix is empty
+	 *
+	 * @returns true if no matrix slot holds an item, false otherwise
+	 */
+	public boolean isMatrixEmpty() {
+		for (int slot = 1; slot < table.length; slot++) {
+			if (table[slot] != null && table[slot].getType() != Material.AIR && table[slot].getAmount() > 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Getter for the items that went into the player's inventory
+	 *
+	 * @returns the total amount received since the last reset
+	 */
+	public int getReceived() {
+		return received;
+	}
+
+	/**
+	 * Getter for the items that were dropped at the player
+	 *
+	 * @returns the total amount dropped since the last reset
+	 */
+	public int getDropped() {
+		return dropped;
+	}
+
+	public void resetCounters() {
+		received = 0;
+		dropped = 0;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Player getPlayer() {
+		return player;
+	}
+}
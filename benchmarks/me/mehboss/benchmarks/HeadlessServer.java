@@ -0,0 +1,171 @@
+package me.mehboss.benchmarks;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Registry;
+import org.bukkit.Server;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginLogger;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import me.mehboss.recipe.Main;
+import me.mehboss.utils.CraftingStats;
+import me.mehboss.utils.RecipeUtil;
+
+/**
+ * The smallest Bukkit server the matching engine runs on. ItemStacks only need
+ * the item factory to compare metas, and the plugin only needs a Main instance
+ * for its version checks, registry and stats. Items with meta are not
+ * supported, NBTEditor needs the classes of a real server to read them.
+ */
+public final class HeadlessServer {
+
+	public static final String BUKKIT_VERSION = "1.19.4-R0.1-SNAPSHOT";
+
+	private static Main plugin = null;
+
+	private HeadlessServer() {
+	}
+
+	/**
+	 * Installs the stand-in server and plugin, only the first call does anything
+	 *
+	 * @returns the stand-in plugin instance
+	 */
+	public static synchronized Main install() throws ReflectiveOperationException {
+		if (plugin != null)
+			return plugin;
+
+		Logger logger = Logger.getLogger("Headless");
+		Map<String, Function<Object[], Object>> factoryAnswers = new HashMap<>();
+		// plain stacks only, so two metas are equal when both are missing
+		factoryAnswers.put("equals", args -> args[0] == args[1]);
+		ItemFactory itemFactory = stub(ItemFactory.class, factoryAnswers);
+		PluginManager pluginManager = stub(PluginManager.class, new HashMap<>());
+
+		Map<String, Function<Object[], Object>> serverAnswers = new HashMap<>();
+		serverAnswers.put("getBukkitVersion", args -> BUKKIT_VERSION);
+		serverAnswers.put("getVersion", args -> "Headless");
+		serverAnswers.put("getName", args -> "Headless");
+		serverAnswers.put("getLogger", args -> logger);
+		serverAnswers.put("getItemFactory", args -> itemFactory);
+		serverAnswers.put("getPluginManager", args -> pluginManager);
+		// empty registries, some API classes look their constants up while loading
+		serverAnswers.put("getRegistry", args -> stub(Registry.class, new HashMap<>()));
+
+		if (Bukkit.getServer() == null)
+			Bukkit.setServer(stub(Server.class, serverAnswers));
+
+		// JavaPlugin refuses to be constructed outside of a plugin class loader
+		Field unsafeField = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+		unsafeField.setAccessible(true);
+		Object unsafe = unsafeField.get(null);
+		Main main = (Main) unsafe.getClass().getMethod("allocateInstance", Class.class).invoke(unsafe, Main.class);
+
+		main.recipeUtil = new RecipeUtil();
+		main.craftingStats = new CraftingStats();
+		main.giveRecipe = new HashMap<>();
+		main.debug = false;
+
+		// the plugin name and logger are used by the loader's error messages
+		setPluginField(main, "server", Bukkit.getServer());
+		setPluginField(main, "description",
+				new PluginDescriptionFile("CustomRecipes", "headless", Main.class.getName()));
+		setPluginField(main, "logger", new PluginLogger(main));
+
+		Field instance = Main.class.getDeclaredField("instance");
+		instance.setAccessible(true);
+		instance.set(null, main);
+
+		plugin = main;
+		return plugin;
+	}
+
+	/**
+	 * Sets the data folder of the stand-in plugin, the recipe loader reads its
+	 * recipes folder and writes the recipe cache there
+	 *
+	 * @param dataFolder the folder to use
+	 */
+	public static void setDataFolder(File dataFolder) throws ReflectiveOperationException {
+		setPluginField(plugin, "dataFolder", dataFolder);
+	}
+
+	private static void setPluginField(Main main, String name, Object value) throws ReflectiveOperationException {
+		Field field = JavaPlugin.class.getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(main, value);
+	}
+
+	/**
+	 * Gives the stand-in plugin an empty recipe registry
+	 *
+	 * @returns the new registry
+	 */
+	public static RecipeUtil resetRegistry() {
+		plugin.recipeUtil = new RecipeUtil();
+		plugin.giveRecipe.clear();
+		return plugin.recipeUtil;
+	}
+
+	/**
+	 * Implements an interface with a map of answers. Methods without an answer
+	 * return null, false or 0, equals and hashCode compare by identity.
+	 *
+	 * @param type    the interface to implement
+	 * @param answers the answers by method name, they get the call arguments
+	 * @returns the stand-in
+	 */
+	public static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+		Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					Function<Object[], Object> answer = answers.get(method.getName());
+					if (answer != null && method.getDeclaringClass() != Object.class)
+						return answer.apply(args);
+
+					switch (method.getName()) {
+					case "equals":
+						if (method.getParameterCount() == 1)
+							return proxy == args[0];
+						break;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "toString":
+						return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+					default:
+						break;
+					}
+					return defaultValue(method.getReturnType());
+				});
+		return type.cast(stub);
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class)
+			return false;
+		if (type == int.class)
+			return 0;
+		if (type == long.class)
+			return 0L;
+		if (type == short.class)
+			return (short) 0;
+		if (type == byte.class)
+			return (byte) 0;
+		if (type == float.class)
+			return 0f;
+		if (type == double.class)
+			return 0d;
+		if (type == char.class)
+			return '\0';
+		return null;
+	}
+}
@@ -0,0 +1,83 @@
+package me.mehboss.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.mehboss.crafting.RecipeDefinition;
+import me.mehboss.crafting.RecipeManager;
+import me.mehboss.utils.RecipeUtil;
+
+/**
+ * The two halves of a reload that run without a server: reading and parsing
+ * the recipe files, and registering the recipes (compiling their matchers and
+ * indexing them). Building the result items is left out, ItemMeta needs the
+ * server's item factory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RecipeLoadingBenchmark {
+
+	@Param({ "10", "1000", "10000" })
+	int recipes;
+
+	SyntheticRecipes synthetic;
+	RecipeManager recipeManager;
+	File folder;
+	File[] files;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, ReflectiveOperationException {
+		HeadlessServer.install();
+
+		synthetic = new SyntheticRecipes(recipes, 42L);
+		recipeManager = new RecipeManager();
+		folder = Files.createTempDirectory("crecipe-bench").toFile();
+
+		synthetic.writeFiles(folder);
+		files = folder.listFiles();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		for (File file : files)
+			file.delete();
+		folder.delete();
+	}
+
+	@Benchmark
+	public List<RecipeDefinition> parseFiles() {
+		List<RecipeDefinition> definitions = new ArrayList<>(files.length);
+		for (File file : files)
+			definitions.add(recipeManager.parseRecipeFile(file, null));
+		return definitions;
+	}
+
+	@Benchmark
+	public RecipeUtil register() {
+		RecipeUtil recipeUtil = HeadlessServer.resetRegistry();
+		synthetic.register(recipeUtil);
+		return recipeUtil;
+	}
+}
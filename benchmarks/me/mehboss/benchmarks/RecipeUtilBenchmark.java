@@ -0,0 +1,79 @@
+package me.mehboss.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.mehboss.utils.RecipeUtil;
+import me.mehboss.utils.RecipeUtil.Recipe;
+
+/**
+ * The registry lookups the listeners make: by identifier (EffectsManager,
+ * BlockManager, identifier ingredients), by name, by result and the candidate
+ * lookup of every crafting grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeUtilBenchmark {
+
+	@Param({ "10", "1000", "10000" })
+	int recipes;
+
+	RecipeUtil recipeUtil;
+	String key;
+	String name;
+	ItemStack result;
+	ItemStack[] grid;
+
+	@Setup(Level.Trial)
+	public void setup() throws ReflectiveOperationException {
+		HeadlessServer.install();
+		recipeUtil = HeadlessServer.resetRegistry();
+
+		SyntheticRecipes synthetic = new SyntheticRecipes(recipes, 42L);
+		synthetic.register(recipeUtil);
+
+		Recipe recipe = synthetic.getRecipes().get(recipes / 2);
+		key = recipe.getKey();
+		name = recipe.getName();
+		result = recipe.getResult().clone();
+		grid = SyntheticRecipes.grid(recipe);
+	}
+
+	@Benchmark
+	public Recipe fromKey() {
+		return recipeUtil.getRecipeFromKey(key);
+	}
+
+	@Benchmark
+	public Recipe byName() {
+		return recipeUtil.getRecipe(name);
+	}
+
+	@Benchmark
+	public Recipe fromResult() {
+		return recipeUtil.getRecipeFromResult(result);
+	}
+
+	@Benchmark
+	public List<Recipe> candidates() {
+		return recipeUtil.getCandidates(grid);
+	}
+}
@@ -0,0 +1,225 @@
+package me.mehboss.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import me.mehboss.utils.GridSnapshot;
+import me.mehboss.utils.RecipeUtil;
+import me.mehboss.utils.RecipeUtil.Ingredient;
+import me.mehboss.utils.RecipeUtil.Recipe;
+import me.mehboss.utils.RecipeUtil.Recipe.RecipeType;
+
+/**
+ * Generates recipe sets of any size. Every third recipe is shapeless, the rest
+ * are shaped with one to nine ingredients, and every tenth recipe requires the
+ * result of an earlier recipe through its identifier. The same seed always
+ * gives the same recipes, so runs can be compared.
+ */
+public final class SyntheticRecipes {
+
+	private static final String LETTERS = "ABCDEFGHI";
+	// never used by a generated recipe, so a grid holding it matches nothing
+	private static final Material MISS = Material.DEBUG_STICK;
+
+	private static Field snapshotIdentifiers = null;
+
+	private final List<Recipe> recipes = new ArrayList<>();
+	private final Material[] materials;
+
+	public SyntheticRecipes(int count, long seed) {
+		ArrayList<Material> items = new ArrayList<>();
+		for (Material material : Material.values()) {
+			if (material.isItem() && !material.isAir() && !material.isLegacy() && material != MISS)
+				items.add(material);
+		}
+		materials = items.toArray(new Material[0]);
+
+		Random random = new Random(seed);
+		for (int i = 0; i < count; i++)
+			recipes.add(create(i, random));
+	}
+
+	private Recipe create(int index, Random random) {
+		Recipe recipe = new Recipe("synthetic" + index);
+		recipe.setKey("synthetic" + index);
+		recipe.setType(index % 3 == 2 ? RecipeType.SHAPELESS : RecipeType.SHAPED);
+		recipe.setResult(new ItemStack(materials[random.nextInt(materials.length)]));
+
+		// a random box inside the 3x3 grid, filled with random materials
+		int width = 1 + random.nextInt(3);
+		int height = 1 + random.nextInt(3);
+		StringBuilder[] rows = { new StringBuilder("XXX"), new StringBuilder("XXX"), new StringBuilder("XXX") };
+
+		for (int slot = 0; slot < 9; slot++) {
+			int row = slot / 3, col = slot % 3;
+			boolean filled = row < height && col < width;
+			String letter = filled ? String.valueOf(LETTERS.charAt(slot)) : "X";
+			Ingredient ingredient = new Ingredient(letter,
+					filled ? materials[random.nextInt(materials.length)] : Material.AIR);
+
+			if (filled && index % 10 == 9 && slot == 0)
+				ingredient.setIdentifier("synthetic" + (index - 1));
+
+			ingredient.setSlot(slot + 1);
+			recipe.addIngredient(ingredient);
+			rows[row].setCharAt(col, letter.charAt(0));
+		}
+
+		for (int row = 0; row < 3; row++)
+			recipe.setRow(row + 1, rows[row].toString());
+		return recipe;
+	}
+
+	/**
+	 * Getter for the generated recipes
+	 *
+	 * @returns the recipes, in the order they were generated
+	 */
+	public List<Recipe> getRecipes() {
+		return recipes;
+	}
+
+	/**
+	 * Registers every generated recipe
+	 *
+	 * @param recipeUtil the registry to add them to
+	 */
+	public void register(RecipeUtil recipeUtil) {
+		for (Recipe recipe : recipes)
+			recipeUtil.createRecipe(recipe);
+	}
+
+	/**
+	 * Builds the crafting grid that crafts a recipe
+	 *
+	 * @param recipe the recipe to craft
+	 * @returns a 3x3 matrix, shapeless ingredients are placed in reverse order
+	 */
+	public static ItemStack[] grid(Recipe recipe) {
+		ItemStack[] matrix = new ItemStack[9];
+		List<Ingredient> ingredients = recipe.getIngredients();
+
+		int next = 8;
+		for (int slot = 0; slot < 9; slot++) {
+			Ingredient ingredient = ingredients.get(slot);
+			if (ingredient.isEmpty())
+				continue;
+
+			ItemStack item = new ItemStack(ingredient.getMaterial(), ingredient.getAmount());
+			if (recipe.getType() == RecipeType.SHAPELESS)
+				matrix[next--] = item;
+			else
+				matrix[slot] = item;
+		}
+		return matrix;
+	}
+
+	/**
+	 * Builds the identifiers of the grid that crafts a recipe, as if the items
+	 * were tagged. Headless stacks carry no NBT, so benchmarks put these in the
+	 * snapshot with tagged(...).
+	 *
+	 * @param recipe the recipe to craft
+	 * @returns the identifier per slot of grid(recipe), null for untagged slots
+	 */
+	public static String[] identifiers(Recipe recipe) {
+		String[] identifiers = new String[9];
+		List<Ingredient> ingredients = recipe.getIngredients();
+
+		int next = 8;
+		for (int slot = 0; slot < 9; slot++) {
+			Ingredient ingredient = ingredients.get(slot);
+			if (ingredient.isEmpty())
+				continue;
+
+			String identifier = ingredient.hasIdentifier() ? ingredient.getIdentifier() : null;
+			if (recipe.getType() == RecipeType.SHAPELESS)
+				identifiers[next--] = identifier;
+			else
+				identifiers[slot] = identifier;
+		}
+		return identifiers;
+	}
+
+	/**
+	 * Takes a snapshot of a grid as if its items were tagged. The identifiers are
+	 * written into the snapshot after it was taken, so no NBT is read.
+	 *
+	 * @param matrix      the crafting matrix, plain stacks
+	 * @param identifiers the identifier per slot, from identifiers(recipe)
+	 * @returns the snapshot
+	 */
+	public static GridSnapshot tagged(ItemStack[] matrix, String[] identifiers) throws ReflectiveOperationException {
+		if (snapshotIdentifiers == null) {
+			snapshotIdentifiers = GridSnapshot.class.getDeclaredField("identifiers");
+			snapshotIdentifiers.setAccessible(true);
+		}
+
+		GridSnapshot grid = new GridSnapshot(matrix);
+		String[] slots = (String[]) snapshotIdentifiers.get(grid);
+		System.arraycopy(identifiers, 0, slots, 0, slots.length);
+		return grid;
+	}
+
+	/**
+	 * Builds a grid that has a recipe's shape but matches nothing, one of the
+	 * ingredients is swapped for a material no recipe uses
+	 *
+	 * @param recipe the recipe to take the shape from
+	 * @returns a 3x3 matrix
+	 */
+	public static ItemStack[] missGrid(Recipe recipe) {
+		ItemStack[] matrix = grid(recipe);
+		for (int slot = 0; slot < 9; slot++) {
+			if (matrix[slot] != null) {
+				matrix[slot] = new ItemStack(MISS);
+				break;
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Writes every generated recipe as a recipe file
+	 *
+	 * @param folder the folder to write the files to
+	 */
+	public void writeFiles(File folder) throws IOException {
+		folder.mkdirs();
+		for (Recipe recipe : recipes) {
+			List<String> lines = new ArrayList<>();
+			lines.add(recipe.getName() + ":");
+			lines.add("  Enabled: true");
+			lines.add("  Shapeless: " + (recipe.getType() == RecipeType.SHAPELESS));
+			lines.add("  Item: '" + recipe.getResult().getType().name() + "'");
+			lines.add("  Amount: 1");
+			lines.add("  Identifier: '" + recipe.getKey() + "'");
+			lines.add("  Converter: none");
+			lines.add("  ItemCrafting:");
+			for (int row = 1; row <= 3; row++)
+				lines.add("   - '" + recipe.getRow(row) + "'");
+
+			lines.add("  Ingredients:");
+			for (Ingredient ingredient : recipe.getIngredients()) {
+				if (ingredient.isEmpty())
+					continue;
+
+				lines.add("    " + ingredient.getAbbreviation() + ":");
+				lines.add("      Material: " + ingredient.getMaterial().name());
+				lines.add("      Identifier: " + (ingredient.hasIdentifier() ? ingredient.getIdentifier() : "none"));
+				lines.add("      Amount: " + ingredient.getAmount());
+			}
+
+			Files.write(new File(folder, recipe.getName() + ".yml").toPath(), lines, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package me.mehboss.crafting;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.mehboss.benchmarks.HeadlessServer;
+import me.mehboss.benchmarks.SyntheticRecipes;
+import me.mehboss.utils.GridSnapshot;
+import me.mehboss.utils.RecipeUtil;
+import me.mehboss.utils.RecipeUtil.Recipe;
+import me.mehboss.utils.RecipeUtil.Recipe.RecipeType;
+
+/**
+ * What handleCrafting does for one grid: take the snapshot, look up the
+ * candidates and run their matchers. The cached benchmark repeats the same grid
+ * through CraftManager.findRecipe, like a table that fires PrepareItemCraftEvent
+ * again for an unchanged grid. Headless stacks carry no NBT, so the identifier
+ * benchmark puts the identifiers in the snapshot itself: it measures matching
+ * a tagged grid, not the NBTEditor reads of taking its snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CraftMatchingBenchmark {
+
+	@Param({ "10", "1000", "10000" })
+	int recipes;
+
+	RecipeUtil recipeUtil;
+	CraftManager craftManager;
+
+	ItemStack[] shaped;
+	ItemStack[] shapeless;
+	ItemStack[] identifier;
+	String[] identifierTags;
+	ItemStack[] miss;
+
+	@Setup(Level.Trial)
+	public void setup() throws ReflectiveOperationException {
+		HeadlessServer.install();
+		recipeUtil = HeadlessServer.resetRegistry();
+
+		SyntheticRecipes synthetic = new SyntheticRecipes(recipes, 42L);
+		synthetic.register(recipeUtil);
+		craftManager = new CraftManager();
+
+		// the last recipes of each kind, so the set is fully populated before them
+		List<Recipe> all = synthetic.getRecipes();
+		for (int i = all.size() - 1; i >= 0; i--) {
+			Recipe recipe = all.get(i);
+			if (shaped == null && recipe.getType() == RecipeType.SHAPED && i % 10 != 9)
+				shaped = SyntheticRecipes.grid(recipe);
+			if (shapeless == null && recipe.getType() == RecipeType.SHAPELESS && i % 10 != 9)
+				shapeless = SyntheticRecipes.grid(recipe);
+			if (identifier == null && i % 10 == 9) {
+				identifier = SyntheticRecipes.grid(recipe);
+				identifierTags = SyntheticRecipes.identifiers(recipe);
+			}
+		}
+
+		miss = SyntheticRecipes.missGrid(all.get(all.size() - 1));
+	}
+
+	Recipe match(ItemStack[] matrix) {
+		List<Recipe> candidates = recipeUtil.getCandidates(matrix);
+		if (candidates.isEmpty())
+			return null;
+
+		return match(new GridSnapshot(matrix), candidates);
+	}
+
+	Recipe match(GridSnapshot grid, List<Recipe> candidates) {
+		for (Recipe recipe : candidates) {
+			if (recipe.getMatcher().matches(grid))
+				return recipe;
+		}
+		return null;
+	}
+
+	@Benchmark
+	public Recipe shaped() {
+		return match(shaped);
+	}
+
+	@Benchmark
+	public Recipe shapeless() {
+		return match(shapeless);
+	}
+
+	// the snapshot is taken with the identifiers written in, no NBT is read
+	@Benchmark
+	public Recipe identifier() throws ReflectiveOperationException {
+		List<Recipe> candidates = recipeUtil.getCandidates(identifier);
+		if (candidates.isEmpty())
+			return null;
+
+		return match(SyntheticRecipes.tagged(identifier, identifierTags), candidates);
+	}
+
+	@Benchmark
+	public Recipe miss() {
+		return match(miss);
+	}
+
+	@Benchmark
+	public Recipe shapedCached() {
+		List<Recipe> candidates = recipeUtil.getCandidates(shaped);
+		return craftManager.findRecipe(null, new GridSnapshot(shaped), candidates, true);
+	}
+}
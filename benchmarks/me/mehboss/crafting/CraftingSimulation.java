@@ -0,0 +1,247 @@
+package me.mehboss.crafting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import me.mehboss.benchmarks.HeadlessCrafter;
+import me.mehboss.benchmarks.HeadlessServer;
+import me.mehboss.benchmarks.SyntheticRecipes;
+import me.mehboss.recipe.Main;
+import me.mehboss.utils.GridSnapshot;
+import me.mehboss.utils.RecipeUtil;
+import me.mehboss.utils.RecipeUtil.Ingredient;
+import me.mehboss.utils.RecipeUtil.Recipe;
+
+/**
+ * Replays crafting sessions of many players against CraftManager and
+ * AmountManager without a server. Every crafter fills the table one slot at a
+ * time (one PrepareItemCraftEvent per slot), then shift clicks the result. The
+ * crafters take turns event by event, like they would on the main thread.
+ * Each result is checked and every listener call has to stay within the time
+ * budget.
+ *
+ * Usage: CraftingSimulation [crafters] [recipes] [rounds] [budget-micros]
+ */
+public class CraftingSimulation {
+
+	private final CraftManager craftManager;
+	private final AmountManager amountManager;
+	private final List<Recipe> eligible = new ArrayList<>();
+	private final List<Recipe> all;
+
+	private final Timings prepareTimings = new Timings();
+	private final Timings shiftTimings = new Timings();
+	private final List<String> failures = new ArrayList<>();
+	private int failureCount = 0;
+	private boolean measuring = false;
+
+	CraftingSimulation(int recipes) throws ReflectiveOperationException {
+		Main main = HeadlessServer.install();
+		RecipeUtil recipeUtil = HeadlessServer.resetRegistry();
+
+		SyntheticRecipes synthetic = new SyntheticRecipes(recipes, 42L);
+		synthetic.register(recipeUtil);
+		all = synthetic.getRecipes();
+
+		for (Recipe recipe : all) {
+			main.giveRecipe.put(recipe.getName().toLowerCase(), recipe.getResult());
+			if (isEligible(recipeUtil, recipe))
+				eligible.add(recipe);
+		}
+
+		craftManager = new CraftManager();
+		amountManager = new AmountManager(craftManager);
+	}
+
+	// only recipes whose grid crafts exactly them with plain items
+	private boolean isEligible(RecipeUtil recipeUtil, Recipe recipe) {
+		for (Ingredient ingredient : recipe.getIngredients()) {
+			if (ingredient.hasIdentifier()
+					|| (!ingredient.isEmpty() && ingredient.getMaterial().name().endsWith("_BUCKET")))
+				return false;
+		}
+
+		ItemStack[] matrix = SyntheticRecipes.grid(recipe);
+		GridSnapshot grid = new GridSnapshot(matrix);
+		int matches = 0;
+
+		for (Recipe candidate : recipeUtil.getCandidates(matrix)) {
+			if (candidate.getMatcher().matches(grid))
+				matches++;
+		}
+		return matches == 1;
+	}
+
+	void run(int crafters, int rounds, long seed) {
+		Random random = new Random(seed);
+		List<ArrayDeque<Runnable>> sessions = new ArrayList<>();
+
+		for (int i = 0; i < crafters; i++) {
+			HeadlessCrafter crafter = new HeadlessCrafter("crafter" + i);
+			ArrayDeque<Runnable> steps = new ArrayDeque<>();
+
+			for (int round = 0; round < rounds; round++) {
+				Recipe recipe = eligible.get(random.nextInt(eligible.size()));
+				if (round % 5 == 4)
+					addMiss(steps, crafter, recipe);
+				else
+					addCraft(steps, crafter, recipe, 1 + random.nextInt(64));
+			}
+			sessions.add(steps);
+		}
+
+		// one event per crafter per turn
+		boolean pending = true;
+		while (pending) {
+			pending = false;
+			for (ArrayDeque<Runnable> steps : sessions) {
+				Runnable step = steps.poll();
+				if (step == null)
+					continue;
+
+				step.run();
+				pending = true;
+			}
+		}
+	}
+
+	private void addCraft(ArrayDeque<Runnable> steps, HeadlessCrafter crafter, Recipe recipe, int crafts) {
+		ItemStack[] matrix = SyntheticRecipes.grid(recipe);
+		int last = lastFilled(matrix);
+
+		steps.add(crafter::clear);
+		for (int slot = 0; slot <= last; slot++) {
+			if (matrix[slot] == null)
+				continue;
+
+			int current = slot;
+			steps.add(() -> {
+				ItemStack item = matrix[current].clone();
+				item.setAmount(item.getAmount() * crafts);
+				crafter.place(current, item);
+
+				// the server only offers the Bukkit recipe result once the grid is complete
+				crafter.setServerResult(current == last ? recipe.getResult().clone() : null);
+				prepare(crafter);
+
+				if (current == last && (crafter.getResult() == null || !crafter.getResult().isSimilar(recipe.getResult())))
+					fail(crafter, "expected the result of " + recipe.getName() + " but got " + crafter.getResult());
+			});
+		}
+
+		steps.add(() -> {
+			crafter.resetCounters();
+			long start = System.nanoTime();
+			amountManager.handleShiftClicks(crafter.shiftClick(null));
+			shiftTimings.add(measuring, System.nanoTime() - start);
+
+			int expected = crafts * recipe.getResult().getAmount();
+			if (crafter.getReceived() + crafter.getDropped() != expected)
+				fail(crafter, "expected " + expected + " items from " + recipe.getName() + " but got "
+						+ (crafter.getReceived() + crafter.getDropped()));
+			if (!crafter.isMatrixEmpty())
+				fail(crafter, "the ingredients of " + recipe.getName() + " were not all taken");
+		});
+	}
+
+	// a grid with the shape of the recipe and a foreign item, the vanilla result stays
+	private void addMiss(ArrayDeque<Runnable> steps, HeadlessCrafter crafter, Recipe recipe) {
+		ItemStack[] matrix = SyntheticRecipes.missGrid(recipe);
+		ItemStack vanilla = new ItemStack(Material.STICK);
+
+		steps.add(crafter::clear);
+		steps.add(() -> {
+			for (int slot = 0; slot < matrix.length; slot++)
+				crafter.place(slot, matrix[slot] == null ? null : matrix[slot].clone());
+
+			crafter.setServerResult(vanilla.clone());
+			prepare(crafter);
+
+			if (crafter.getResult() == null || !crafter.getResult().isSimilar(vanilla))
+				fail(crafter, "a grid without a custom recipe lost its vanilla result");
+		});
+	}
+
+	private void prepare(HeadlessCrafter crafter) {
+		long start = System.nanoTime();
+		craftManager.handleCrafting(crafter.prepare());
+		prepareTimings.add(measuring, System.nanoTime() - start);
+	}
+
+	private int lastFilled(ItemStack[] matrix) {
+		int last = -1;
+		for (int slot = 0; slot < matrix.length; slot++) {
+			if (matrix[slot] != null)
+				last = slot;
+		}
+		return last;
+	}
+
+	private void fail(HeadlessCrafter crafter, String message) {
+		failureCount++;
+		if (failures.size() < 10)
+			failures.add(crafter.getName() + ": " + message);
+	}
+
+	public static void main(String[] args) throws ReflectiveOperationException {
+		int crafters = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int recipes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		long budget = (args.length > 3 ? Long.parseLong(args[3]) : 1000L) * 1000L;
+
+		CraftingSimulation simulation = new CraftingSimulation(recipes);
+		System.out.println(crafters + " crafters, " + recipes + " recipes (" + simulation.eligible.size()
+				+ " craftable with plain items), " + rounds + " rounds each");
+
+		// warm the JIT up before anything is timed
+		simulation.run(Math.max(1, crafters / 10), rounds, 1L);
+		simulation.measuring = true;
+		simulation.run(crafters, rounds, 2L);
+
+		boolean passed = simulation.failureCount == 0;
+		passed &= simulation.prepareTimings.report("PrepareItemCraftEvent", budget);
+		passed &= simulation.shiftTimings.report("CraftItemEvent (shift click)", budget);
+
+		for (String failure : simulation.failures)
+			System.out.println("FAIL " + failure);
+		System.out.println(simulation.failureCount + " failed check(s), " + (passed ? "PASSED" : "FAILED"));
+		System.exit(passed ? 0 : 1);
+	}
+
+	static class Timings {
+		private long[] nanos = new long[1024];
+		private int count = 0;
+
+		void add(boolean measuring, long time) {
+			if (!measuring)
+				return;
+
+			if (count == nanos.length)
+				nanos = Arrays.copyOf(nanos, count * 2);
+			nanos[count++] = time;
+		}
+
+		// prints the percentiles, false if the p99 is over the budget
+		boolean report(String event, long budget) {
+			if (count == 0) {
+				System.out.println(event + ": no events");
+				return true;
+			}
+
+			long[] sorted = Arrays.copyOf(nanos, count);
+			Arrays.sort(sorted);
+			long p99 = sorted[(int) Math.min(count - 1, Math.ceil(count * 0.99) - 1)];
+
+			System.out.println(String.format("%s: %d events, p50 %.1fus, p99 %.1fus, max %.1fus (budget %.1fus)",
+					event, count, sorted[count / 2] / 1000.0, p99 / 1000.0, sorted[count - 1] / 1000.0,
+					budget / 1000.0));
+			return p99 <= budget;
+		}
+	}
+}
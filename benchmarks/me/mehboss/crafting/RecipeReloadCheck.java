@@ -0,0 +1,104 @@
+package me.mehboss.crafting;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import me.mehboss.benchmarks.HeadlessServer;
+import me.mehboss.benchmarks.SyntheticRecipes;
+import me.mehboss.recipe.Main;
+import me.mehboss.utils.RecipeUtil.Recipe;
+
+/**
+ * Reloads a recipe file that was broken after it was loaded and checks that
+ * the loaded recipe stays registered: once with a YAML syntax error and once
+ * with valid YAML that fails validation. Deleting the file afterwards has to
+ * unload it, as the only recipe. The recipe is first loaded from a
+ * cached definition, building result items needs a server.
+ *
+ * Usage: RecipeReloadCheck
+ */
+public class RecipeReloadCheck {
+
+	private final RecipeManager recipeManager = new RecipeManager();
+	private final List<String> failures = new ArrayList<>();
+
+	private final File recipeFile;
+	private final Recipe recipe;
+
+	RecipeReloadCheck(File dataFolder) throws IOException, ReflectiveOperationException {
+		HeadlessServer.install().plugin = recipeManager;
+		HeadlessServer.setDataFolder(dataFolder);
+		HeadlessServer.resetRegistry();
+
+		SyntheticRecipes synthetic = new SyntheticRecipes(1, 42L);
+		File recipeFolder = new File(dataFolder, "recipes");
+		synthetic.writeFiles(recipeFolder);
+
+		recipe = synthetic.getRecipes().get(0);
+		recipeFile = new File(recipeFolder, recipe.getName() + ".yml");
+	}
+
+	void run() throws IOException {
+		byte[] contents = Files.readAllBytes(recipeFile.toPath());
+		RecipeDefinition loaded = new RecipeDefinition(recipeFile, recipe.getName(), null, recipeFile.lastModified(),
+				recipeFile.length(), recipeManager.hash(contents), recipe);
+		recipeManager.applyDefinitions(Collections.singletonList(loaded), Collections.emptyList());
+		check("the recipe is registered", loaded);
+
+		edit(recipe.getName() + ":\n  Enabled: [true\n");
+		recipeManager.addRecipes();
+		check("a reload of a file with a YAML syntax error", loaded);
+
+		edit("Other" + recipe.getName() + ":\n  Enabled: true\n");
+		recipeManager.addRecipes();
+		check("a reload of a file that fails validation", loaded);
+
+		recipeFile.delete();
+		recipeManager.addRecipes();
+		if (Main.getInstance().recipeUtil.getRecipe(recipe.getName()) != null)
+			failures.add("a reload after deleting the file kept the recipe");
+	}
+
+	// a different length, so the file is never taken for unchanged
+	private void edit(String contents) throws IOException {
+		Files.write(recipeFile.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		recipeFile.setLastModified(recipeFile.lastModified() + 2000L);
+	}
+
+	private void check(String step, RecipeDefinition loaded) {
+		if (Main.getInstance().recipeUtil.getRecipe(recipe.getName()) != recipe)
+			failures.add(step + " unregistered the loaded recipe");
+		else if (recipeManager.getLoadedFile(recipe.getName()).getHash() != loaded.getHash())
+			failures.add(step + " replaced the loaded definition");
+	}
+
+	public static void main(String[] args) throws IOException, ReflectiveOperationException {
+		File dataFolder = Files.createTempDirectory("crecipe-reload").toFile();
+		RecipeReloadCheck check = new RecipeReloadCheck(dataFolder);
+
+		try {
+			check.run();
+		} finally {
+			delete(dataFolder);
+		}
+
+		for (String failure : check.failures)
+			System.out.println("FAIL " + failure);
+		System.out.println(check.failures.size() + " failed check(s), " + (check.failures.isEmpty() ? "PASSED" : "FAILED"));
+		System.exit(check.failures.isEmpty() ? 0 : 1);
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children)
+				delete(child);
+		}
+		file.delete();
+	}
+}
@@ -16,6 +16,8 @@ import org.bukkit.inventory.ItemStack;
 import com.cryptomorin.xseries.XSound;
 
 import me.mehboss.recipe.Main;
+import me.mehboss.utils.Debug;
+import me.mehboss.utils.RecipeUtil.Recipe;
 
 public class GiveRecipe implements CommandExecutor {
 
@@ -61,6 +63,10 @@ public class GiveRecipe implements CommandExecutor {
 					"&c/crecipe reload &8-&f Reloads the configs and resets all recipes &e(crecipe.reload)"));
 			p.sendMessage(ChatColor.translateAlternateColorCodes('&',
 					"&c/crecipe debug &8-&f Enables debug mode for the author to troubleshoot &e(crecipe.debug)"));
+			p.sendMessage(ChatColor.translateAlternateColorCodes('&',
+					"&c/crecipe debug <player|recipe|clear> [name] &8-&f Only debugs one player or recipe &e(crecipe.debug)"));
+			p.sendMessage(ChatColor.translateAlternateColorCodes('&',
+					"&c/crecipe stats [reset] &8-&f Shows how long crafting and recipe lookups take &e(crecipe.stats)"));
 			p.sendMessage(ChatColor.translateAlternateColorCodes('&', "&8-------------------------------------"));
 		}
 
@@ -141,6 +147,7 @@ public class GiveRecipe implements CommandExecutor {
 				if (Main.getInstance().debug) {
 					sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
 							"&c[CustomRecipes] &fDebug mode has been turned &cOFF."));
+					Debug.clearTrace();
 					debug().set("Debug", false);
 					Main.getInstance().debug = false;
 					Main.getInstance().saveConfig();
@@ -159,6 +166,81 @@ public class GiveRecipe implements CommandExecutor {
 				}
 			}
 
+			if (args.length > 1 && args[0].equalsIgnoreCase("debug")) {
+
+				if (!sender.hasPermission("crecipe.debug")) {
+					sender.sendMessage(
+							ChatColor.translateAlternateColorCodes('&', debug().getString("Messages.Invalid-Perms")));
+					return false;
+				}
+
+				if (args[1].equalsIgnoreCase("clear")) {
+					Debug.clearTrace();
+					sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+							"&c[CustomRecipes] &fNo longer tracing, debugging every player and recipe."));
+					return true;
+				}
+
+				if (args.length != 3) {
+					sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+							"&c/crecipe debug <player|recipe|clear> [name] &8-&f Only debugs one player or recipe &e(crecipe.debug)"));
+					return true;
+				}
+
+				if (args[1].equalsIgnoreCase("player")) {
+					Player target = Bukkit.getPlayer(args[2]);
+
+					if (target == null) {
+						sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+								debug().getString("Messages.Player-Not-Found")));
+						return true;
+					}
+					Debug.tracePlayer(target);
+
+				} else if (args[1].equalsIgnoreCase("recipe")) {
+					if (plugin.recipeUtil.getRecipe(args[2]) == null) {
+						sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+								debug().getString("Messages.Recipe-Not-Found")));
+						return true;
+					}
+					Debug.traceRecipe(args[2]);
+
+				} else {
+					sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+							"&c/crecipe debug <player|recipe|clear> [name] &8-&f Only debugs one player or recipe &e(crecipe.debug)"));
+					return true;
+				}
+
+				// tracing only lasts until the next toggle, the config is left alone
+				Main.getInstance().debug = true;
+				sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+						"&c[CustomRecipes] &fDebug mode is &aON&f for " + args[1].toLowerCase() + " &e" + args[2]
+								+ "&f only. Check console for INFO."));
+				return true;
+			}
+
+			if (args.length <= 2 && args[0].equalsIgnoreCase("stats")) {
+
+				if (!sender.hasPermission("crecipe.stats")) {
+					sender.sendMessage(
+							ChatColor.translateAlternateColorCodes('&', debug().getString("Messages.Invalid-Perms")));
+					return false;
+				}
+
+				if (args.length == 2 && args[1].equalsIgnoreCase("reset")) {
+					plugin.craftingStats.reset();
+					sender.sendMessage(ChatColor.translateAlternateColorCodes('&',
+							"&c[CustomRecipes] &fThe crafting stats have been reset."));
+					return true;
+				}
+
+				sender.sendMessage(ChatColor.translateAlternateColorCodes('&', "&8-------------------------------------"));
+				for (String line : plugin.craftingStats.getReport())
+					sender.sendMessage(ChatColor.translateAlternateColorCodes('&', line));
+				sender.sendMessage(ChatColor.translateAlternateColorCodes('&', "&8-------------------------------------"));
+				return true;
+			}
+
 			if (args.length >= 1 && args[0].equalsIgnoreCase("list")) {
 				if (!sender.hasPermission("crecipe.list")) {
 					sender.sendMessage(
@@ -252,7 +334,10 @@ public class GiveRecipe implements CommandExecutor {
 					amount = Integer.parseInt(args[3]);
 				}
 
-				ItemStack item = new ItemStack(plugin.giveRecipe.get(args[2].toLowerCase()));
+				ItemStack result = plugin.giveRecipe.get(args[2].toLowerCase());
+				Recipe recipe = plugin.recipeUtil.getRecipeFromResult(result);
+
+				ItemStack item = recipe != null ? recipe.getResultTemplate().create(target) : new ItemStack(result);
 				item.setAmount(amount);
 
 				target.getInventory().addItem(item);
@@ -1,6 +1,7 @@
 package me.mehboss.commands;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -25,6 +26,7 @@ public class TabCompletion implements TabCompleter {
 			// Tab complete for /customrecipes give
 			// Tab complete for /customrecipes reload
 			// Tab complete for /customrecipes gui
+			// Tab complete for /customrecipes stats
 			List<String> subCommands = new ArrayList<>();
 
 			if (sender.hasPermission("crecipe.debug"))
@@ -39,8 +41,24 @@ public class TabCompletion implements TabCompleter {
 				subCommands.add("gui");
 			if (sender.hasPermission("crecipe.book"))
 				subCommands.add("book");
+			if (sender.hasPermission("crecipe.stats"))
+				subCommands.add("stats");
 
 			StringUtil.copyPartialMatches(args[0], subCommands, completions);
+		} else if (args[0].equalsIgnoreCase("stats") && sender.hasPermission("crecipe.stats")) {
+			// Tab complete for /customrecipes stats [reset]
+			if (args.length == 2)
+				StringUtil.copyPartialMatches(args[1], Arrays.asList("reset"), completions);
+
+		} else if (args[0].equalsIgnoreCase("debug") && sender.hasPermission("crecipe.debug")) {
+			// Tab complete for /customrecipes debug <player|recipe|clear> [name]
+			if (args.length == 2)
+				StringUtil.copyPartialMatches(args[1], Arrays.asList("player", "recipe", "clear"), completions);
+			else if (args.length == 3 && args[1].equalsIgnoreCase("player"))
+				StringUtil.copyPartialMatches(args[2], getOnlinePlayerNames(), completions);
+			else if (args.length == 3 && args[1].equalsIgnoreCase("recipe"))
+				StringUtil.copyPartialMatches(args[2], getRecipes(), completions);
+
 		} else if (args.length > 1 && !args[0].equals("give") && sender.hasPermission("crecipe.give")) {
 			return completions;
 
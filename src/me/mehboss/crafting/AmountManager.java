@@ -1,9 +1,9 @@
 package me.mehboss.crafting;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.function.Supplier;
 
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -17,12 +17,13 @@ import org.bukkit.inventory.ItemStack;
 
 import com.cryptomorin.xseries.XMaterial;
 
-import io.github.bananapuncher714.nbteditor.NBTEditor;
 import me.mehboss.recipe.Main;
+import me.mehboss.utils.CraftingStats;
+import me.mehboss.utils.Debug;
+import me.mehboss.utils.GridSnapshot;
 import me.mehboss.utils.RecipeUtil;
-import me.mehboss.utils.RecipeUtil.Ingredient;
+import me.mehboss.utils.ResultTemplate;
 import me.mehboss.utils.RecipeUtil.Recipe;
-import me.mehboss.utils.RecipeUtil.Recipe.RecipeType;
 
 public class AmountManager implements Listener {
 
@@ -38,241 +39,188 @@ public class AmountManager implements Listener {
 		return Main.getInstance().giveRecipe;
 	}
 
-	void logDebug(String st) {
-		if (Main.getInstance().debug)
-			Logger.getLogger("Minecraft").log(Level.WARNING, "[DEBUG][" + Main.getInstance().getName() + "]" + st);
-	}
-
-	private boolean hasAllIngredients(CraftingInventory inv, String recipes, List<Ingredient> recipeIngredients) {
-		return craftManager.hasAllIngredients(inv, recipes, recipeIngredients);
+	// the message is only built when debug is on and the player/recipe is traced
+	void logDebug(Player p, Recipe recipe, Supplier<String> st) {
+		Debug.log(p, recipe, st);
 	}
 
 	private boolean matchedRecipe(CraftingInventory inv) {
 		return craftManager.matchedRecipe(inv);
 	}
 
-	private boolean hasMatchingDisplayName(String recipeName, ItemStack item, String displayName, String identifier,
-			boolean hasIdentifier, boolean b) {
-		return craftManager.hasMatchingDisplayName(recipeName, item, displayName, identifier, hasIdentifier, b);
-	}
-
-	// Helper method for the handleShiftClick method
-	void handlesItemRemoval(CraftItemEvent e, CraftingInventory inv, Recipe recipe, ItemStack item,
-			RecipeUtil.Ingredient ingredient, int slot, int itemsToRemove, int itemsToAdd, int requiredAmount) {
-
-		String recipeName = recipe.getName();
-		logDebug("[handleShiftClicks] Checking slot " + slot + " for the recipe " + recipeName);
-
-		if ((ingredient.hasIdentifier() && NBTEditor.contains(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER")
-				&& ingredient.getIdentifier()
-						.equals(NBTEditor.getString(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER")))
-				|| (ingredient.hasIdentifier()
-						&& item.isSimilar(recipeUtil.getRecipeFromKey(ingredient.getIdentifier()).getResult()))
-				|| (item.getType() == ingredient.getMaterial() && hasMatchingDisplayName(recipeName, item,
-						ingredient.getDisplayName(), ingredient.getIdentifier(), ingredient.hasIdentifier(), false))) {
-
-			if (item.getAmount() < requiredAmount)
-				return;
+	// Helper method for the handleShiftClick method, takes the ingredients of one
+	// or more crafts from a slot
+	void handlesItemRemoval(CraftItemEvent e, CraftingInventory inv, Recipe recipe, int slot, int crafts,
+			int requiredAmount) {
+		ItemStack item = inv.getItem(slot);
+		if (item == null || item.getType() == Material.AIR)
+			return;
 
-			itemsToRemove = itemsToAdd * requiredAmount;
+		int itemsToRemove = crafts * requiredAmount;
+		Player p = (Player) e.getWhoClicked();
 
-			int availableItems = item.getAmount();
+		if (Debug.isEnabled(p, recipe)) {
+			logDebug(p, recipe, () -> "[handleShiftClicks] Handling recipe " + recipe.getName());
+			logDebug(p, recipe, () -> "[handleShiftClicks] Slot: " + slot);
+			logDebug(p, recipe, () -> "[handleShiftClicks] ItemsToRemove: " + itemsToRemove);
+			logDebug(p, recipe, () -> "[handleShiftClicks] ItemAmount: " + item.getAmount());
+			logDebug(p, recipe, () -> "[handleShiftClicks] RequiredAmount: " + requiredAmount);
+		}
 
-			logDebug("[handleShiftClicks] Handling recipe " + recipeName);
-			logDebug("[handleShiftClicks] ItemsToRemove: " + itemsToRemove);
-			logDebug("[handleShiftClicks] ItemAmount: " + availableItems);
-			logDebug("[handleShiftClicks] RequiredAmount: " + requiredAmount);
-			logDebug("[handleShiftClicks] Identifier: " + ingredient.getIdentifier());
-			logDebug("[handleShiftClicks] HasIdentifier: " + ingredient.hasIdentifier());
-			logDebug("[handleShiftClicks] Material: " + ingredient.getMaterial().toString());
-			logDebug("[handleShiftClicks] Displayname: " + ingredient.getDisplayName());
+		if (item.getType().toString().contains("_BUCKET") && !(recipe.isConsume())) {
+			item.setType(XMaterial.BUCKET.parseMaterial());
+			return;
+		}
 
-			int itemAmount = item.getAmount();
-			if (itemAmount < requiredAmount)
-				return;
+		if (e.getAction() != InventoryAction.MOVE_TO_OTHER_INVENTORY) {
+			// the server takes one more item itself once the event is done
+			if ((item.getAmount() + 1) - requiredAmount == 0)
+				inv.setItem(slot, null);
+			else
+				item.setAmount((item.getAmount() + 1) - requiredAmount);
+			return;
+		}
 
-			if (e.getAction() != InventoryAction.MOVE_TO_OTHER_INVENTORY) {
-				if (item.getType().toString().contains("_BUCKET") && !(recipe.isConsume())) {
-					item.setType(XMaterial.BUCKET.parseMaterial());
-				} else {
-					if ((item.getAmount() + 1) - requiredAmount == 0)
-						inv.setItem(slot, null);
-					else
-						item.setAmount((item.getAmount() + 1) - requiredAmount);
-				}
-			} else {
-				if (item.getType().toString().contains("_BUCKET") && !(recipe.isConsume())) {
-					item.setType(XMaterial.BUCKET.parseMaterial());
-				} else {
-					if ((item.getAmount() - itemsToRemove) <= 0) {
-						inv.setItem(slot, null);
-						return;
-					}
-
-					item.setAmount(item.getAmount() - itemsToRemove);
-				}
-			}
+		if ((item.getAmount() - itemsToRemove) <= 0) {
+			inv.setItem(slot, null);
+			return;
 		}
+		item.setAmount(item.getAmount() - itemsToRemove);
 	}
 
-	// Helper method for the handleShiftClick method
-	boolean matchesIngredient(ItemStack item, String recipeName, RecipeUtil.Ingredient ingredient, Material material,
-			String displayName, boolean hasIdentifier) {
-		return ((ingredient.hasIdentifier() && NBTEditor.contains(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER")
-				&& ingredient.getIdentifier()
-						.equals(NBTEditor.getString(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER")))
-				|| (ingredient.hasIdentifier()
-						&& item.isSimilar(recipeUtil.getRecipeFromKey(ingredient.getIdentifier()).getResult()))
-				|| (item.getType() == material && hasMatchingDisplayName(recipeName, item, displayName,
-						ingredient.getIdentifier(), hasIdentifier, false)));
+	// Gives the results of every craft at once. The total is split into full
+	// stacks and added in a single addItem call, which merges them into partial
+	// stacks before using empty slots. Whatever does not fit is dropped.
+	void giveResults(Player player, Recipe recipe, ItemStack result, int crafts) {
+		int maxStack = Math.max(1, result.getMaxStackSize());
+		long total = (long) crafts * result.getAmount();
+
+		ArrayList<ItemStack> stacks = new ArrayList<>();
+		while (total > 0) {
+			ItemStack stack = result.clone();
+			stack.setAmount((int) Math.min(maxStack, total));
+			stacks.add(stack);
+			total -= stack.getAmount();
+		}
+
+		HashMap<Integer, ItemStack> overflow = player.getInventory().addItem(stacks.toArray(new ItemStack[0]));
+		for (ItemStack leftover : overflow.values())
+			player.getWorld().dropItem(player.getLocation(), leftover);
+
+		logDebug(player, recipe, () -> "[handleShiftClicks] Gave " + crafts + " craft(s) in " + stacks.size()
+				+ " stack(s), dropped " + overflow.size() + " stack(s) that did not fit.");
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST)
 	void handleShiftClicks(CraftItemEvent e) {
 		CraftingInventory inv = e.getInventory();
 
-		if (!(matchedRecipe(inv)))
-			return;
-
-		if (!(getRecipe().containsValue(inv.getResult())))
-			return;
+		Recipe handled = null;
+		long start = System.nanoTime();
 
-		logDebug("[handleShiftClicks] Passed containsValue boolean check.");
+		try {
+			if (!(matchedRecipe(inv)))
+				return;
 
-		if (e.getCurrentItem() == null || e.getCurrentItem().getType() == Material.AIR)
-			return;
+			if (!(getRecipe().containsValue(inv.getResult())))
+				return;
 
-		String findName = recipeUtil.getRecipeFromResult(inv.getResult()).getName();
-		boolean found = false;
-		final ItemStack result = inv.getResult();
+			Player player = (Player) e.getWhoClicked();
+			logDebug(player, null, () -> "[handleShiftClicks] Passed containsValue boolean check.");
 
-		for (String recipes : recipeUtil.getRecipeNames()) {
-			List<RecipeUtil.Ingredient> recipeIngredients = recipeUtil.getRecipe(findName).getIngredients();
+			if (e.getCurrentItem() == null || e.getCurrentItem().getType() == Material.AIR)
+				return;
 
-			if (hasAllIngredients(inv, recipes, recipeIngredients)
-					&& recipeUtil.getRecipe(findName).getType() == RecipeType.SHAPELESS) {
-				findName = recipes;
-				found = true;
-				break;
-			}
-			if (hasAllIngredients(inv, recipes, recipeIngredients)
-					&& recipeUtil.getRecipe(findName).getType() == RecipeType.SHAPED) {
-				findName = recipes;
-				found = true;
-				break;
-			}
-		}
+			final ItemStack result = inv.getResult();
+			ItemStack[] matrix = inv.getMatrix();
+			GridSnapshot grid = new GridSnapshot(matrix);
 
-		if (NBTEditor.contains(inv.getResult(), NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER")) {
-			String foundID = NBTEditor.getString(inv.getResult(), NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER");
+			// the same lookup that put the result in the table, not counted again in the stats
+			List<Recipe> candidates = recipeUtil.getCandidates(matrix);
+			Recipe recipe = candidates.isEmpty() ? null : craftManager.findRecipe(player, grid, candidates, false);
 
-			if (recipeUtil.getRecipeFromKey(foundID) != null) {
-				findName = recipeUtil.getRecipeFromKey(foundID).getName();
-				found = true;
+			if (recipe == null) {
+				logDebug(player, null, () -> "[handleShiftClicks] Could not pair the grid to a custom recipe.");
+				return;
 			}
-		}
-
-		logDebug("[handleShiftClicks] Found recipe " + findName + " to handle..");
-
-		if (!found)
-			return;
-
-		logDebug("[handleShiftClicks] Paired it to a custom recipe. Running crafting amount calculations..");
-
-		final String recipeName = findName;
-		int itemsToAdd = Integer.MAX_VALUE;
-		int itemsToRemove = 0;
 
-		if (e.isCancelled()) {
-			logDebug("Couldn't complete craftItemEvent for recipe " + recipeName
-					+ ", the event was unexpectedly cancelled.");
-			logDebug("Please seek support or open a ticket https://github.com/mehboss/CustomRecipes/issues");
-			return;
-		}
+			handled = recipe;
+			logDebug(player, recipe, () -> "[handleShiftClicks] Found recipe " + recipe.getName() + " to handle..");
 
-		logDebug("[handleShiftClicks] Checking amount requirements for " + recipeName);
-
-		Recipe recipe = recipeUtil.getRecipe(recipeName);
-		for (RecipeUtil.Ingredient ingredient : recipe.getIngredients()) {
-			if (ingredient.isEmpty())
-				continue;
+			if (e.isCancelled()) {
+				logDebug(player, recipe, () -> "Couldn't complete craftItemEvent for recipe " + recipe.getName()
+						+ ", the event was unexpectedly cancelled.");
+				logDebug(player, recipe,
+						() -> "Please seek support or open a ticket https://github.com/mehboss/CustomRecipes/issues");
+				return;
+			}
 
-			Material material = ingredient.getMaterial();
-			String displayName = ingredient.getDisplayName();
-			int requiredAmount = ingredient.getAmount();
-			boolean hasIdentifier = ingredient.hasIdentifier();
+			// which ingredient every slot was matched with, also for shapes that were
+			// moved or mirrored in the grid
+			int[] placement = recipe.getMatcher().getPlacement(grid);
+			if (placement == null) {
+				logDebug(player, recipe, () -> "[handleShiftClicks] Could not craft " + recipe.getName()
+						+ ".. An issue has occured with the amount deductions..");
+				e.setResult(null);
+				e.setCancelled(true);
+				return;
+			}
 
-			for (int highest = 1; highest < 10; highest++) {
-				ItemStack slot = inv.getItem(highest);
+			logDebug(player, recipe, () -> "[handleShiftClicks] Checking amount requirements for " + recipe.getName());
 
-				if (slot == null || slot.getType() == Material.AIR)
+			int itemsToAdd = Integer.MAX_VALUE;
+			for (int slot = 0; slot < placement.length; slot++) {
+				if (placement[slot] == -1)
 					continue;
 
-				if (matchesIngredient(slot, recipeName, ingredient, material, displayName, hasIdentifier)) {
-					if (slot.getAmount() < requiredAmount)
-						continue;
-
-					int availableItems = slot.getAmount();
-					int possibleItemsToRemove = availableItems / requiredAmount;
+				int requiredAmount = recipe.getIngredients().get(placement[slot]).getAmount();
 
-					// Keep track of the lowest possible items to add.
-					itemsToAdd = Math.min(itemsToAdd, possibleItemsToRemove);
-				}
+				// Keep track of the lowest possible items to add.
+				itemsToAdd = Math.min(itemsToAdd, grid.getAmount(slot) / requiredAmount);
 			}
 
-			if (itemsToAdd == Integer.MAX_VALUE) {
-				logDebug("[handleShiftClicks] Could not craft " + findName + ".. An issue has occured with the amount deductions..");
+			if (itemsToAdd == Integer.MAX_VALUE || itemsToAdd == 0) {
+				logDebug(player, recipe, () -> "[handleShiftClicks] Could not craft " + recipe.getName()
+						+ ".. An issue has occured with the amount deductions..");
 				e.setResult(null);
 				e.setCancelled(true);
 				return;
 			}
 
-			// Handle SHAPELESS recipes by looping through the inventory
-			if (recipe.getType() == RecipeType.SHAPELESS) {
-				for (int i = 1; i < 10; i++) {
-					ItemStack item = inv.getItem(i);
-					int slot = i;
-
-					if (item == null || item.getType() == Material.AIR)
-						continue;
-
-					handlesItemRemoval(e, inv, recipe, item, ingredient, slot, itemsToRemove, itemsToAdd,
-							requiredAmount);
-
-				}
-			} else {
-				ItemStack item = inv.getItem(ingredient.getSlot());
-				int slot = ingredient.getSlot();
-
-				if (item == null || item.getType() == Material.AIR)
+			// the amount of crafts is known for every ingredient now, deduct them all
+			for (int slot = 0; slot < placement.length; slot++) {
+				if (placement[slot] == -1)
 					continue;
 
-				handlesItemRemoval(e, inv, recipe, item, ingredient, slot, itemsToRemove, itemsToAdd, requiredAmount);
-
+				int requiredAmount = recipe.getIngredients().get(placement[slot]).getAmount();
+				handlesItemRemoval(e, inv, recipe, slot + 1, itemsToAdd, requiredAmount);
 			}
-		}
 
-		// Add the result items to the player's inventory
-		Player player = (Player) e.getWhoClicked();
+			// Add the result items to the player's inventory
+			int crafts = itemsToAdd;
+			ResultTemplate template = recipe.getResultTemplate();
 
-		if (e.getAction() != InventoryAction.MOVE_TO_OTHER_INVENTORY) {
-			logDebug("[handleShiftClicks] Didn't detect shift click from inventory.. Ignoring..");
-			
-		} else {
+			if (e.getAction() != InventoryAction.MOVE_TO_OTHER_INVENTORY) {
+				logDebug(player, recipe,
+						() -> "[handleShiftClicks] Didn't detect shift click from inventory.. Ignoring..");
 
-			e.setCancelled(true);
-			inv.setResult(new ItemStack(Material.AIR));
+				// the server takes the result after the event, so it gets the personalized one
+				if (template.hasPlaceholders())
+					inv.setResult(template.create(player));
 
-			for (int i = 0; i < itemsToAdd; i++) {
-				if (player.getInventory().firstEmpty() == -1) {
-					player.getLocation().getWorld().dropItem(player.getLocation(), result);
-					continue;
-				}
-				player.getInventory().addItem(result);
+			} else {
+
+				e.setCancelled(true);
+				inv.setResult(new ItemStack(Material.AIR));
+				giveResults(player, recipe, template.hasPlaceholders() ? template.create(player) : result, crafts);
+
+				logDebug(player, recipe,
+						() -> "[handleShiftClicks] Shift click detected. Adding " + crafts + " to inventory.");
+				logDebug(player, recipe,
+						() -> "[handleShiftClicks] Added " + crafts + " items and removed items from table.");
 			}
-			
-			logDebug("[handleShiftClicks] Shift click detected. Adding " + itemsToAdd + " to inventory.");
-			logDebug("[handleShiftClicks] Added " + itemsToAdd + " items and removed items from table.");
+		} finally {
+			Main.getInstance().craftingStats.record(CraftingStats.SHIFT_CLICKS, start, handled);
 		}
 	}
 }
@@ -0,0 +1,165 @@
+package me.mehboss.crafting;
+
+import java.util.HashMap;
+import java.util.logging.Level;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.inventory.ItemStack;
+
+import com.cryptomorin.xseries.XMaterial;
+
+import io.github.bananapuncher714.nbteditor.NBTEditor;
+import me.mehboss.recipe.Main;
+
+/**
+ * Compiled form of blacklisted.yml. Vanilla entries are keyed by material and
+ * durability, custom entries by their CUSTOM_ITEM_IDENTIFIER, and every
+ * permission is resolved up front so a craft event only does a hash lookup.
+ */
+public class Blacklist {
+
+	private final boolean enabled;
+	private final HashMap<String, Entry> byItem = new HashMap<>();
+	private final HashMap<String, Entry> byIdentifier = new HashMap<>();
+
+	private Blacklist(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Compiles the vanilla-recipes and custom-recipes sections of blacklisted.yml
+	 *
+	 * @param customConfig the blacklisted.yml configuration, can be null
+	 * @returns the compiled blacklist, empty if blacklist-recipes is disabled
+	 */
+	@SuppressWarnings("deprecation")
+	public static Blacklist compile(FileConfiguration customConfig) {
+		if (customConfig == null || !customConfig.getBoolean("blacklist-recipes"))
+			return new Blacklist(false);
+
+		Blacklist blacklist = new Blacklist(true);
+		ConfigurationSection vanilla = customConfig.getConfigurationSection("vanilla-recipes");
+
+		if (vanilla != null) {
+			for (String item : vanilla.getKeys(false)) {
+				String[] split = item.split(":");
+				ItemStack i = XMaterial.matchXMaterial(split[0]).isPresent()
+						? XMaterial.matchXMaterial(split[0]).get().parseItem()
+						: null;
+
+				if (i == null) {
+					Main.getInstance().getLogger().log(Level.SEVERE, "We are having trouble matching the material '"
+							+ split[0]
+							+ "' to a minecraft item. Please double check you have inputted the correct material "
+							+ "ID into the blacklisted config file and try again. If this problem persists please contact Mehboss on Spigot!");
+					continue;
+				}
+
+				try {
+					if (split.length == 2)
+						i.setDurability(Short.valueOf(split[1]));
+				} catch (NumberFormatException e) {
+					Main.getInstance().getLogger().log(Level.SEVERE,
+							"The durability of the blacklisted item '" + item + "' is not a number, skipping it.");
+					continue;
+				}
+
+				blacklist.byItem.put(itemKey(i), new Entry(item, i, vanilla.getString(item + ".permission")));
+			}
+		}
+
+		ConfigurationSection custom = customConfig.getConfigurationSection("custom-recipes");
+		if (custom != null) {
+			for (String identifier : custom.getKeys(false))
+				blacklist.byIdentifier.put(identifier,
+						new Entry(identifier, null, custom.getString(identifier + ".permission")));
+		}
+		return blacklist;
+	}
+
+	/**
+	 * Getter for the blacklist entry of a crafting result
+	 *
+	 * @param result the result of the crafting inventory
+	 * @returns the matching entry, null if the result is not blacklisted
+	 */
+	public Entry find(ItemStack result) {
+		if (!enabled || result == null)
+			return null;
+
+		if (!byItem.isEmpty()) {
+			Entry entry = byItem.get(itemKey(result));
+			if (entry != null && result.isSimilar(entry.item))
+				return entry;
+		}
+
+		// only items with meta can carry an identifier
+		if (byIdentifier.isEmpty() || !result.hasItemMeta()
+				|| !NBTEditor.contains(result, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER"))
+			return null;
+
+		String identifier = NBTEditor.getString(result, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER");
+		Entry entry = byIdentifier.get(identifier);
+
+		// recipes of this plugin are disabled through their own files
+		if (entry == null || Main.getInstance().recipeUtil.getRecipeFromKey(identifier) != null)
+			return null;
+		return entry;
+	}
+
+	/**
+	 * Getter for the amount of compiled entries
+	 *
+	 * @returns the number of blacklisted vanilla items and identifiers
+	 */
+	public int size() {
+		return byItem.size() + byIdentifier.size();
+	}
+
+	@SuppressWarnings("deprecation")
+	private static String itemKey(ItemStack item) {
+		return item.getType().name() + ":" + item.getDurability();
+	}
+
+	public static class Entry {
+		private final String name;
+		private final ItemStack item;
+		private final String permission;
+		private final String node;
+
+		Entry(String name, ItemStack item, String permission) {
+			this.name = name;
+			this.item = item;
+			this.permission = permission == null ? "none" : permission;
+			this.node = this.permission.equalsIgnoreCase("none") ? null : "crecipe." + this.permission;
+		}
+
+		/**
+		 * Getter for the entry as it is written in blacklisted.yml
+		 *
+		 * @returns the material (with durability) or identifier
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Getter for the permission as it is written in blacklisted.yml
+		 *
+		 * @returns the permission, "none" if there is none
+		 */
+		public String getPermission() {
+			return permission;
+		}
+
+		/**
+		 * Getter for the permission node that allows crafting the entry anyway
+		 *
+		 * @returns the full node (crecipe.permission), null if nobody may craft it
+		 */
+		public String getPermissionNode() {
+			return node;
+		}
+	}
+}
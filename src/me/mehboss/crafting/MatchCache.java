@@ -0,0 +1,132 @@
+package me.mehboss.crafting;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import me.mehboss.utils.GridSnapshot;
+import me.mehboss.utils.RecipeUtil;
+import me.mehboss.utils.RecipeUtil.Recipe;
+
+/**
+ * Remembers which recipe a crafting grid matched. PrepareItemCraftEvent fires
+ * again for the same grid on every slot update, shift distribution and for
+ * every viewer of the table, so repeated grids skip the recipe loop. Entries
+ * are dropped as soon as the recipe registry changes.
+ */
+public class MatchCache {
+
+	private static final Object NO_MATCH = new Object();
+
+	private final RecipeUtil recipeUtil;
+	private final LinkedHashMap<Fingerprint, Object> matches;
+	private int registryVersion;
+
+	public MatchCache(RecipeUtil recipeUtil, int maxEntries) {
+		this.recipeUtil = recipeUtil;
+		this.registryVersion = recipeUtil.getVersion();
+		this.matches = new LinkedHashMap<Fingerprint, Object>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Fingerprint, Object> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Builds the fingerprint of a crafting grid
+	 *
+	 * @param grid the snapshot of the crafting matrix (2x2 or 3x3)
+	 * @returns the fingerprint to look the grid up with
+	 */
+	public Fingerprint fingerprint(GridSnapshot grid) {
+		return new Fingerprint(grid);
+	}
+
+	/**
+	 * Checks if the outcome of a grid is remembered
+	 *
+	 * @param fingerprint the grid fingerprint
+	 * @returns true if the grid was evaluated since the registry last changed
+	 */
+	public boolean contains(Fingerprint fingerprint) {
+		validate();
+		return matches.containsKey(fingerprint);
+	}
+
+	/**
+	 * Getter for the remembered outcome of a grid, check contains() first
+	 *
+	 * @param fingerprint the grid fingerprint
+	 * @returns the matched recipe, null if the grid matched nothing
+	 */
+	public Recipe get(Fingerprint fingerprint) {
+		Object match = matches.get(fingerprint);
+		return match == NO_MATCH ? null : (Recipe) match;
+	}
+
+	/**
+	 * Remembers the outcome of a grid
+	 *
+	 * @param fingerprint the grid fingerprint
+	 * @param recipe      the matched recipe, null if the grid matched nothing
+	 */
+	public void put(Fingerprint fingerprint, Recipe recipe) {
+		validate();
+		matches.put(fingerprint, recipe == null ? NO_MATCH : recipe);
+	}
+
+	private void validate() {
+		if (registryVersion == recipeUtil.getVersion())
+			return;
+
+		matches.clear();
+		registryVersion = recipeUtil.getVersion();
+	}
+
+	/**
+	 * Everything the recipe matchers look at in a grid: per slot the material,
+	 * amount, custom model data, identifier and displayname.
+	 */
+	public static final class Fingerprint {
+		private final int[] numbers;
+		private final String[] strings;
+		private final int hash;
+
+		private Fingerprint(GridSnapshot grid) {
+			numbers = new int[grid.size() * 3];
+			strings = new String[grid.size() * 2];
+
+			for (int slot = 0; slot < grid.size(); slot++) {
+				numbers[slot * 3] = grid.getMaterial(slot);
+				if (grid.isEmpty(slot))
+					continue;
+
+				numbers[slot * 3 + 1] = grid.getAmount(slot);
+				numbers[slot * 3 + 2] = grid.getModelData(slot);
+				strings[slot * 2] = grid.peekIdentifier(slot);
+				strings[slot * 2 + 1] = grid.getDisplayName(slot);
+			}
+
+			hash = 31 * Arrays.hashCode(numbers) + Arrays.hashCode(strings);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Fingerprint))
+				return false;
+
+			Fingerprint other = (Fingerprint) obj;
+			return hash == other.hash && Arrays.equals(numbers, other.numbers) && Arrays.equals(strings, other.strings);
+		}
+	}
+}
@@ -0,0 +1,261 @@
+package me.mehboss.crafting;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import me.mehboss.recipe.Main;
+import me.mehboss.utils.RecipeUtil.Ingredient;
+import me.mehboss.utils.RecipeUtil.Recipe;
+import me.mehboss.utils.RecipeUtil.Recipe.RecipeType;
+
+/**
+ * Binary snapshot of the recipes built from the recipe folder, including their
+ * finished result stacks. Entries are keyed by recipe name and only handed out
+ * when the file hash still matches, so changed files are parsed as usual. The
+ * whole snapshot is thrown away when the server, plugin or hooks changed since
+ * it was written.
+ */
+public class RecipeCache {
+
+	private static final int MAGIC = 0x43524350;
+	// bump whenever the layout written below changes
+	private static final int FORMAT_VERSION = 1;
+
+	private final File file;
+	private final HashMap<String, String> hashes = new HashMap<>();
+	private final HashMap<String, Recipe> recipes = new HashMap<>();
+
+	public RecipeCache(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Getter for a cached recipe
+	 *
+	 * @param name the recipe name (file name without .yml)
+	 * @param hash the current content hash of the recipe file
+	 * @returns the cached recipe, null if there is none or the file changed
+	 */
+	public Recipe getRecipe(String name, String hash) {
+		return hash.equals(hashes.get(name)) ? recipes.get(name) : null;
+	}
+
+	/**
+	 * Getter for the amount of cached recipes
+	 *
+	 * @returns the number of entries read from the cache file
+	 */
+	public int size() {
+		return recipes.size();
+	}
+
+	/**
+	 * Reads the cache file in one go, must be called on the main thread. A missing,
+	 * outdated or broken cache simply leaves the cache empty.
+	 *
+	 * @returns true if the cache was read, false otherwise
+	 */
+	public boolean read() {
+		hashes.clear();
+		recipes.clear();
+
+		if (!file.isFile())
+			return false;
+
+		try (BukkitObjectInputStream in = new BukkitObjectInputStream(
+				new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(environment()))
+				return false;
+
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String name = in.readUTF();
+				hashes.put(name, in.readUTF());
+				recipes.put(name, readRecipe(in, name));
+			}
+			return true;
+		} catch (Exception e) {
+			hashes.clear();
+			recipes.clear();
+			Main.getInstance().getLogger().warning("Could not read the recipe cache, rebuilding it: " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the loaded recipes to the cache file, must be called on the main
+	 * thread. The file is replaced atomically so a crash never leaves half a
+	 * cache behind.
+	 *
+	 * @param definitions the loaded recipe files
+	 * @param registry    the loaded recipes by name
+	 */
+	public void write(Collection<RecipeDefinition> definitions, HashMap<String, Recipe> registry) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (BukkitObjectOutputStream out = new BukkitObjectOutputStream(bytes)) {
+			HashMap<String, Recipe> entries = new HashMap<>();
+			for (RecipeDefinition definition : definitions) {
+				Recipe recipe = registry.get(definition.getName());
+				if (recipe != null && !definition.getHash().isEmpty())
+					entries.put(definition.getName(), recipe);
+			}
+
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(environment());
+			out.writeInt(entries.size());
+
+			for (RecipeDefinition definition : definitions) {
+				Recipe recipe = entries.get(definition.getName());
+				if (recipe == null)
+					continue;
+
+				out.writeUTF(definition.getName());
+				out.writeUTF(definition.getHash());
+				writeRecipe(out, recipe);
+			}
+		} catch (IOException e) {
+			Main.getInstance().getLogger().warning("Could not write the recipe cache: " + e.getMessage());
+			return;
+		}
+
+		try {
+			File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+			Files.write(temp.toPath(), bytes.toByteArray());
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			Main.getInstance().getLogger().warning("Could not write the recipe cache: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Drops the entries that were read, they are only needed for the first load
+	 */
+	public void clear() {
+		hashes.clear();
+		recipes.clear();
+	}
+
+	// anything that changes how a recipe file is turned into a recipe
+	private String environment() {
+		Main main = Main.getInstance();
+		return Bukkit.getVersion() + "|" + main.getDescription().getVersion() + "|" + main.hasAE + "|" + main.hasEE
+				+ "|" + main.hasHavenBags;
+	}
+
+	private void writeRecipe(BukkitObjectOutputStream out, Recipe recipe) throws IOException {
+		out.writeUTF(recipe.getType().name());
+		writeString(out, recipe.getKey());
+		writeString(out, recipe.getPerm());
+		out.writeObject(recipe.getResult());
+
+		out.writeBoolean(recipe.isCustomTagged());
+		out.writeBoolean(recipe.isActive());
+		out.writeBoolean(recipe.isPlaceable());
+		out.writeBoolean(recipe.isConsume());
+		out.writeBoolean(recipe.getIgnoreData());
+		out.writeBoolean(recipe.getIgnoreModelData());
+		out.writeInt(recipe.getCookTime());
+		out.writeFloat(recipe.getExperience());
+
+		for (int row = 1; row <= 3; row++)
+			writeString(out, recipe.getRow(row));
+
+		out.writeInt(recipe.getIngredients().size());
+		for (Ingredient ingredient : recipe.getIngredients()) {
+			out.writeUTF(ingredient.getAbbreviation());
+			out.writeUTF(ingredient.getMaterial().name());
+			writeString(out, ingredient.hasDisplayName() ? ingredient.getDisplayName() : null);
+			writeString(out, ingredient.getIdentifier());
+			out.writeInt(ingredient.getAmount());
+			out.writeInt(ingredient.getSlot());
+		}
+
+		out.writeInt(recipe.getDisabledWorlds().size());
+		for (String world : recipe.getDisabledWorlds())
+			out.writeUTF(world);
+
+		out.writeInt(recipe.getEffects().size());
+		for (PotionEffect effect : recipe.getEffects())
+			out.writeObject(effect);
+	}
+
+	private Recipe readRecipe(BukkitObjectInputStream in, String name) throws IOException, ClassNotFoundException {
+		Recipe recipe = new Recipe(name);
+
+		recipe.setType(RecipeType.valueOf(in.readUTF()));
+		String key = readString(in);
+		if (key != null)
+			recipe.setKey(key);
+		recipe.setPerm(readString(in));
+		recipe.setResult((ItemStack) in.readObject());
+
+		// the cached result is already tagged, setTagged only re-applies the same tag
+		if (in.readBoolean())
+			recipe.setTagged(true);
+		recipe.setActive(in.readBoolean());
+		recipe.setPlaceable(in.readBoolean());
+		recipe.setConsume(in.readBoolean());
+		recipe.setIgnoreData(in.readBoolean());
+		recipe.setIgnoreModelData(in.readBoolean());
+		recipe.setCookTime(in.readInt());
+		recipe.setExperience(in.readFloat());
+
+		for (int row = 1; row <= 3; row++)
+			recipe.setRow(row, readString(in));
+
+		int ingredients = in.readInt();
+		for (int i = 0; i < ingredients; i++) {
+			Ingredient ingredient = new Ingredient(in.readUTF(), Material.valueOf(in.readUTF()));
+			String displayName = readString(in);
+			if (displayName != null)
+				ingredient.setDisplayName(displayName);
+
+			String identifier = readString(in);
+			if (identifier != null)
+				ingredient.setIdentifier(identifier);
+
+			ingredient.setAmount(in.readInt());
+			int slot = in.readInt();
+			if (slot > 0)
+				ingredient.setSlot(slot);
+			recipe.addIngredient(ingredient);
+		}
+
+		int worlds = in.readInt();
+		for (int i = 0; i < worlds; i++)
+			recipe.addDisabledWorld(in.readUTF());
+
+		int effects = in.readInt();
+		for (int i = 0; i < effects; i++)
+			recipe.addEffect((PotionEffect) in.readObject());
+
+		return recipe;
+	}
+
+	private void writeString(BukkitObjectOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null)
+			out.writeUTF(value);
+	}
+
+	private String readString(BukkitObjectInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+}
@@ -0,0 +1,115 @@
+package me.mehboss.crafting;
+
+import java.io.File;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import me.mehboss.utils.RecipeUtil.Recipe;
+
+/**
+ * A recipe file that has been read and parsed, but not yet turned into a
+ * Recipe. Definitions are produced by the loader threads and consumed on the
+ * main thread. The file stamp and content hash are kept so a reload can tell
+ * which files changed since they were last loaded.
+ */
+public class RecipeDefinition {
+
+	private final File file;
+	private final String name;
+	private final FileConfiguration config;
+
+	private final long lastModified;
+	private final long length;
+	private final String hash;
+	private final Recipe cachedRecipe;
+
+	public RecipeDefinition(File file, String name, FileConfiguration config, long lastModified, long length,
+			String hash) {
+		this(file, name, config, lastModified, length, hash, null);
+	}
+
+	public RecipeDefinition(File file, String name, FileConfiguration config, long lastModified, long length,
+			String hash, Recipe cachedRecipe) {
+		this.file = file;
+		this.name = name;
+		this.config = config;
+		this.lastModified = lastModified;
+		this.length = length;
+		this.hash = hash;
+		this.cachedRecipe = cachedRecipe;
+	}
+
+	/**
+	 * Getter for the recipe file
+	 * 
+	 * @returns the file the definition was read from
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Getter for the recipe name, which is the file name without .yml
+	 * 
+	 * @returns the recipe name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Getter for the parsed recipe configuration
+	 * 
+	 * @returns the configuration, empty if the file could not be parsed and null
+	 *          if the recipe was restored from the cache
+	 */
+	public FileConfiguration getConfig() {
+		return config;
+	}
+
+	/**
+	 * Getter for the modification time of the file when it was read
+	 * 
+	 * @returns the last modified time in milliseconds
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Getter for the size of the file when it was read
+	 * 
+	 * @returns the file length in bytes
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * Getter for the content hash of the file
+	 * 
+	 * @returns the hex SHA-1 of the file contents
+	 */
+	public String getHash() {
+		return hash;
+	}
+
+	/**
+	 * Getter for the recipe restored from the recipe cache
+	 * 
+	 * @returns the cached recipe, null if the file has to be built from its
+	 *          configuration
+	 */
+	public Recipe getCachedRecipe() {
+		return cachedRecipe;
+	}
+
+	/**
+	 * Checks if the file on disk still has the same stamp as when it was read
+	 * 
+	 * @returns true if the modification time and size are unchanged
+	 */
+	public boolean isCurrent() {
+		return file.lastModified() == lastModified && file.length() == length;
+	}
+}
@@ -1,6 +1,11 @@
 package me.mehboss.crafting;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /*
  * Mozilla Public License v2.0
@@ -17,11 +22,21 @@ import java.io.File;
  */
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -31,6 +46,7 @@ import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeModifier;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.enchantments.Enchantment;
@@ -43,6 +59,8 @@ import org.bukkit.inventory.ShapelessRecipe;
 import org.bukkit.inventory.StonecuttingRecipe;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
 
 import com.cryptomorin.xseries.XEnchantment;
 import com.cryptomorin.xseries.XMaterial;
@@ -59,6 +77,9 @@ import valorless.havenbags.hooks.CustomRecipes.BagInfo;
 public class RecipeManager {
 
 	FileConfiguration recipeConfig = null;
+	// read by the watcher thread, only written on the main thread
+	ConcurrentHashMap<String, RecipeDefinition> loadedFiles = new ConcurrentHashMap<>();
+	RecipeCache recipeCache = null;
 
 	boolean hasHavenBag() {
 		if (Main.getInstance().hasHavenBags)
@@ -84,6 +105,31 @@ public class RecipeManager {
 			recipe.setPlaceable(getConfig().getBoolean(item + ".Placeable"));
 	}
 	
+	@SuppressWarnings("deprecation")
+	void handleEffects(String item, Recipe recipe) {
+		if (!getConfig().isSet(item + ".Effects"))
+			return;
+
+		for (String e : getConfig().getStringList(item + ".Effects")) {
+			String[] effectSplit = e.split(":");
+			PotionEffectType type = PotionEffectType.getByName(effectSplit[0].toUpperCase());
+
+			if (type == null) {
+				logError("Could not find the effect " + effectSplit[0] + " for the recipe " + item + ". Skipping..");
+				continue;
+			}
+
+			try {
+				int duration = Integer.parseInt(effectSplit[1]) * 20;
+				int amplifier = Integer.parseInt(effectSplit[2]);
+				recipe.addEffect(new PotionEffect(type, duration, amplifier));
+			} catch (Exception ex) {
+				logError("The effect " + e + " for the recipe " + item
+						+ " is not valid. Use EFFECT:SECONDS:AMPLIFIER. Skipping..");
+			}
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	ItemStack applyCustomTags(ItemStack item, String recipe) {
 		try {
@@ -176,7 +222,7 @@ public class RecipeManager {
 		CustomRecipes havenBags = new CustomRecipes();
 		BagInfo bInfo = havenBags.new BagInfo(null, bagMaterial, bagSize, canBind, bagTexture);
 
-		if (Main.getInstance().serverVersionAtLeast(1, 14) && getConfig().isSet(item + ".Custom-Model-Data")
+		if (Main.getInstance().getCapabilities().hasCustomModelData() && getConfig().isSet(item + ".Custom-Model-Data")
 				&& isInt(getConfig().getString(item + ".Custom-Model-Data"))) {
 			bagCMD = getConfig().getInt(item + ".Custom-Model-Data");
 		}
@@ -298,7 +344,7 @@ public class RecipeManager {
 
 	ItemMeta handleFlags(String item, ItemMeta m) {
 
-		if (!(Main.getInstance().serverVersionAtLeast(1, 14)))
+		if (!(Main.getInstance().getCapabilities().hasItemFlags()))
 			return m;
 
 		if (getConfig().isSet(item + ".Item-Flags")) {
@@ -358,7 +404,7 @@ public class RecipeManager {
 	}
 
 	ItemMeta handleCustomModelData(String item, ItemMeta m) {
-		if (!(Main.getInstance().serverVersionAtLeast(1, 14)))
+		if (!(Main.getInstance().getCapabilities().hasCustomModelData()))
 			return m;
 
 		if (getConfig().isSet(item + ".Custom-Model-Data")
@@ -375,7 +421,7 @@ public class RecipeManager {
 	}
 
 	ItemMeta handleAttributes(String item, ItemMeta m) {
-		if (!(Main.getInstance().serverVersionAtLeast(1, 12)))
+		if (!(Main.getInstance().getCapabilities().hasAttributes()))
 			return m;
 
 		if (getConfig().isSet(item + ".Attribute")) {
@@ -407,6 +453,11 @@ public class RecipeManager {
 		return m;
 	}
 
+	/**
+	 * Loads the recipe folder and applies the differences to the registry. Files
+	 * that did not change since the last load are kept as they are, changed files
+	 * replace their recipe and deleted files unload theirs.
+	 */
 	public void addRecipes() {
 
 		RecipeUtil recipeUtil = Main.getInstance().recipeUtil;
@@ -421,220 +472,446 @@ public class RecipeManager {
 			return;
 		}
 
-		recipeLoop: for (File recipeFile : recipeFiles) {
-			recipeConfig = YamlConfiguration.loadConfiguration(recipeFile);
-			String item = recipeFile.getName().replace(".yml", "");
-
-			if (!(recipeConfig.isConfigurationSection(item))) {
-				Main.getInstance().getLogger().log(Level.WARNING,
-						"Could not find configuration section " + item
-								+ " in the recipe file that must match its filename: " + item
-								+ ".yml - (CaSeSeNsItIvE) - Skipping this recipe");
-				continue;
-			}
+		// the cache only matters for the first load, later loads compare against
+		// loadedFiles
+		RecipeCache cache = null;
+		if (loadedFiles.isEmpty()) {
+			cache = getRecipeCache();
+			if (cache.read())
+				logDebug("Read " + cache.size() + " recipe(s) from the recipe cache.");
+		}
 
-			Recipe recipe = new Recipe(item);
+		List<RecipeDefinition> definitions = parseRecipeFiles(recipeFiles, cache);
+		HashSet<String> removed = new HashSet<>(loadedFiles.keySet());
 
-			ItemStack i = null;
-			ItemMeta m = null;
+		// only files that are gone are unloaded, a file that failed to parse keeps its recipe
+		for (File recipeFile : recipeFiles) {
+			if (recipeFile.isFile() && recipeFile.getName().toLowerCase().endsWith(".yml"))
+				removed.remove(recipeFile.getName().replace(".yml", ""));
+		}
 
-			List<String> gridRows = getConfig().getStringList(item + ".ItemCrafting");
-			String converter = getConfig().isString(item + ".Converter")
-					? getConfig().getString(item + ".Converter").toLowerCase()
-					: "converterNotDefined";
-			int amountRequirement = 9;
+		applyDefinitions(definitions, removed);
 
-			logDebug("Attempting to add the recipe " + item + "..");
+		if (cache != null)
+			cache.clear();
+	}
 
-			if (!(hasHavenBag()) && isHavenBag(item)) {
-				logError("Error loading recipe: " + recipeFile.getName());
-				logError("Found a havenbag recipe, but can not find the havenbags plugin. Skipping recipe..");
-				continue;
-			}
+	RecipeCache getRecipeCache() {
+		if (recipeCache == null)
+			recipeCache = new RecipeCache(new File(Main.getInstance().getDataFolder(), "recipes.cache"));
+		return recipeCache;
+	}
 
-			if (!getConfig().isConfigurationSection(item + ".Ingredients")) {
-				logError("Error adding recipe " + recipeFile.getName());
-				logError("Could not locate the ingredients section. Please double check formatting. Skipping recipe..");
+	/**
+	 * Applies parsed recipe files to the registry, must be called on the main
+	 * thread. Definitions with the same content hash as the loaded file are
+	 * skipped. A recipe is only replaced once its new version was built, if that
+	 * fails the loaded version stays registered.
+	 * 
+	 * @param definitions the parsed files that may have changed
+	 * @param removed     the names of the recipe files that no longer exist
+	 * @returns the names of the recipes that could not be built
+	 */
+	public List<String> applyDefinitions(Collection<RecipeDefinition> definitions, Collection<String> removed) {
+		RecipeUtil recipeUtil = Main.getInstance().recipeUtil;
+		List<Recipe> changed = new ArrayList<>();
+		List<String> failed = new ArrayList<>();
+		int unchanged = 0;
+		int cached = 0;
+		boolean rebuilt = false;
+
+		for (RecipeDefinition definition : definitions) {
+			RecipeDefinition old = loadedFiles.get(definition.getName());
+
+			if (old != null && old.getHash().equals(definition.getHash())) {
+				loadedFiles.put(definition.getName(), definition);
+				unchanged++;
 				continue;
 			}
 
-			switch (converter) {
-			case "stonecutter":
-				recipe.setType(RecipeType.STONECUTTER);
-				amountRequirement = 1;
-				break;
-			case "furnace":
-				recipe.setType(RecipeType.FURNACE);
-				amountRequirement = 1;
-				break;
-			default:
-				if (getConfig().isBoolean(item + ".Shapeless") && getConfig().getBoolean(item + ".Shapeless") == true) {
-					recipe.setType(RecipeType.SHAPELESS);
-					break;
-				} else {
-					recipe.setType(RecipeType.SHAPED);
-					break;
+			Recipe recipe = definition.getCachedRecipe();
+			if (recipe != null) {
+				cached++;
+			} else {
+				recipe = buildRecipe(definition);
+				if (recipe == null) {
+					// not recorded as loaded, so the next reload tries the file again
+					failed.add(definition.getName());
+					if (old != null)
+						logError("Could not load the changed recipe " + definition.getName()
+								+ ", keeping the version that is loaded.");
+					continue;
 				}
+				rebuilt = true;
 			}
 
-			if (!Main.getInstance().serverVersionAtLeast(1, 14) && recipe.getType() == RecipeType.STONECUTTER) {
-				logError("Error loading recipe " + recipeFile.getName());
-				logError("Got " + converter
-						+ ", but your server version is below 1.14. Expected furnace or no converter (for regular crafting).");
-				continue;
+			if (old != null) {
+				unloadRecipe(old.getName());
+				rebuilt = true;
 			}
 
-			// HavenBag detected, but converter is not SHAPED or SHAPELESS
-			if (recipe.getType() != RecipeType.SHAPED && recipe.getType() != RecipeType.SHAPELESS && isHavenBag(item)) {
-				logError("Error loading recipe " + recipeFile.getName());
-				logError("Got " + recipe.getType() + ", but the recipe is a havenbag recipe! Skipping..");
-				continue;
+			loadedFiles.put(definition.getName(), definition);
+			recipeUtil.createRecipe(recipe);
+			changed.add(recipe);
+		}
+
+		for (String name : removed) {
+			if (loadedFiles.remove(name) != null) {
+				unloadRecipe(name);
+				rebuilt = true;
 			}
+		}
 
-			String damage = getConfig().getString(item + ".Item-Damage");
-			int amount = getConfig().isInt(item + ".Amount") ? getConfig().getInt(item + ".Amount") : 1;
-			Optional<XMaterial> type = getConfig().isString(item + ".Item")
-					? XMaterial.matchXMaterial(getConfig().getString(item + ".Item").toUpperCase())
-					: null;
+		logDebug("Reloaded " + changed.size() + " changed recipe(s) (" + cached + " from the cache) and removed "
+				+ removed.size() + " recipe(s), " + unchanged + " file(s) unchanged.");
 
-			if (type == null || !(validMaterial(recipe.getName(), getConfig().getString(item + ".Item"), type))) {
-				logError("Error loading recipe " + recipeFile.getName());
-				logError("Please double check the 'Item:' material is valid");
-				continue;
-			}
+		// registers every changed recipe with the server in one batch
+		recipeUtil.addRecipes(changed);
+
+		// the registry is null once its last recipe is removed
+		if (rebuilt)
+			getRecipeCache().write(loadedFiles.values(),
+					recipeUtil.getAllRecipes() == null ? new HashMap<>() : recipeUtil.getAllRecipes());
+		return failed;
+	}
+
+	/**
+	 * Getter for the last loaded definition of a recipe file
+	 * 
+	 * @param name the recipe name (file name without .yml)
+	 * @returns the loaded definition, null if the file has not been loaded
+	 */
+	public RecipeDefinition getLoadedFile(String name) {
+		return loadedFiles.get(name);
+	}
 
-			i = handleItemDamage(i, item, damage, type, amount);
-			i = handleDurability(i, item);
-			i = handleIdentifier(i, item, recipe);
-			i = applyCustomTags(i, item);
-			i = handleEnchants(i, item);
-			i = handleCustomEnchants(i, item);
-
-			m = handleDisplayname(item, i);
-			m = handleHideEnchants(item, m);
-			m = handleCustomModelData(item, m);
-			m = handleAttributes(item, m);
-			m = handleFlags(item, m);
-			m = handleLore(item, m);
-			i.setItemMeta(m);
-
-			if (isHavenBag(item))
-				i = handleBagCreation(i.getType(), item);
-
-			handlePlaceable(item, recipe);
-			handleBucketConsume(i.getType(), item, recipe);
-			recipe.setResult(i);
-
-			if (getConfig().getBoolean(item + ".Custom-Tagged") == true)
-				recipe.setTagged(true);
-
-			ArrayList<String> slotsAbbreviations = new ArrayList<String>();
-			String row1 = gridRows.get(0);
-			String row2 = gridRows.get(1);
-			String row3 = gridRows.get(2);
-
-			slotsAbbreviations.add(row1.split("")[0]);
-			slotsAbbreviations.add(row1.split("")[1]);
-			slotsAbbreviations.add(row1.split("")[2]);
-
-			slotsAbbreviations.add(row2.split("")[0]);
-			slotsAbbreviations.add(row2.split("")[1]);
-			slotsAbbreviations.add(row2.split("")[2]);
-
-			slotsAbbreviations.add(row3.split("")[0]);
-			slotsAbbreviations.add(row3.split("")[1]);
-			slotsAbbreviations.add(row3.split("")[2]);
-
-			recipe.setRow(1, row1);
-			recipe.setRow(2, row2);
-			recipe.setRow(3, row3);
-
-			int slot = 0;
-			int count = 0;
-
-			for (String abbreviation : slotsAbbreviations) {
-				// Iterate through the specified 9x9 grid and get it from the Ingredients
-				// section..
-				slot++;
-
-				RecipeUtil.Ingredient recipeIngredient;
-
-				// adds the abbreviation for AIR automatically to the recipe
-				if (abbreviation.equalsIgnoreCase("X")) {
-					recipeIngredient = new RecipeUtil.Ingredient("X", Material.AIR);
-					recipeIngredient.setSlot(slot);
-					recipe.addIngredient(recipeIngredient);
+	void unloadRecipe(String name) {
+		Main.getInstance().recipeUtil.unloadRecipe(name);
+		giveRecipe().remove(name.toLowerCase());
+	}
+
+	List<RecipeDefinition> parseRecipeFiles(File[] recipeFiles, RecipeCache cache) {
+		LinkedHashMap<File, Future<RecipeDefinition>> pending = new LinkedHashMap<>();
+		List<RecipeDefinition> definitions = new ArrayList<>();
+
+		int threads = Math.max(1, Math.min(recipeFiles.length, Runtime.getRuntime().availableProcessors()));
+		ExecutorService loader = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "CustomRecipes-Loader");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try {
+			for (File recipeFile : recipeFiles) {
+				if (!recipeFile.isFile() || !recipeFile.getName().toLowerCase().endsWith(".yml"))
 					continue;
-				}
 
-				String configPath = item + ".Ingredients." + abbreviation;
-				String material = getConfig().getString(configPath + ".Material");
-				Optional<XMaterial> rawMaterial = XMaterial.matchXMaterial(material);
+				RecipeDefinition previous = loadedFiles.get(recipeFile.getName().replace(".yml", ""));
+				pending.put(recipeFile, loader.submit(() -> parseRecipeFile(recipeFile, previous, cache)));
+			}
 
-				if (!validMaterial(recipe.getName(), material, rawMaterial)) {
-					continue recipeLoop;
+			// a file that fails is skipped, its loaded recipe (if any) stays registered
+			for (Map.Entry<File, Future<RecipeDefinition>> entry : pending.entrySet()) {
+				try {
+					RecipeDefinition definition = entry.getValue().get();
+					if (definition != null)
+						definitions.add(definition);
+				} catch (ExecutionException e) {
+					Main.getInstance().getLogger().log(Level.SEVERE,
+							"Error loading the recipe file " + entry.getKey().getName() + ": " + e.getCause(),
+							e.getCause());
 				}
+			}
 
-				Material ingredientMaterial = rawMaterial.get().parseMaterial();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logError("Interrupted while loading the recipe files!");
+		} finally {
+			loader.shutdown();
+		}
+		return definitions;
+	}
 
-				count++;
-				if (count > amountRequirement) {
-					logError("Error loading recipe " + recipeFile.getName());
-					logError("Found " + amountRequirement + " slots but converter is " + converter
-							+ " so use only one slot" + " (X for others) for 'ItemCrafting'");
-					continue recipeLoop;
-				}
+	/**
+	 * Reads and parses a recipe file. Runs on the loader or watcher threads, so it
+	 * must not touch the server or recipeConfig.
+	 * 
+	 * @param recipeFile the file to read
+	 * @param previous   the last loaded definition of the file, can be null
+	 * @returns the previous definition if the file is untouched, could not be
+	 *          read or is not valid YAML (null if there is none), otherwise a new
+	 *          definition
+	 */
+	public RecipeDefinition parseRecipeFile(File recipeFile, RecipeDefinition previous) {
+		return parseRecipeFile(recipeFile, previous, null);
+	}
+
+	RecipeDefinition parseRecipeFile(File recipeFile, RecipeDefinition previous, RecipeCache cache) {
+		if (previous != null && previous.isCurrent())
+			return previous;
+
+		String name = recipeFile.getName().replace(".yml", "");
+		long lastModified = recipeFile.lastModified();
+		long length = recipeFile.length();
+		YamlConfiguration config = new YamlConfiguration();
+		byte[] contents;
+
+		try {
+			contents = Files.readAllBytes(recipeFile.toPath());
+		} catch (IOException e) {
+			// keep whatever is loaded, the file may be in the middle of being written
+			logError("Could not read the recipe file " + recipeFile.getName() + ": " + e.getMessage());
+			return previous;
+		}
 
-				String ingredientName = getConfig().isString(configPath + ".Name")
-						? getConfig().getString(configPath + ".Name")
-						: null;
-				String ingredientIdentifier = getConfig().isString(configPath + ".Identifier")
-						? getConfig().getString(configPath + ".Identifier")
-						: null;
-				int ingredientAmount = getConfig().isInt(configPath + ".Amount")
-						? getConfig().getInt(configPath + ".Amount")
-						: 1;
-
-				logDebug("[HandlingIngredient] Ingredient Name: " + ingredientName);
-				logDebug("[HandlingIngredient] Ingredient Identifier: " + ingredientIdentifier);
-				logDebug("[HandlingIngredient] Ingredient Type: " + ingredientMaterial);
-				logDebug("[HandlingIngredient] Ingredient Amount: " + ingredientAmount);
-
-				recipeIngredient = new RecipeUtil.Ingredient(abbreviation, ingredientMaterial);
-				recipeIngredient.setDisplayName(ingredientName);
-				recipeIngredient.setIdentifier(ingredientIdentifier);
-				recipeIngredient.setAmount(ingredientAmount);
+		String hash = hash(contents);
+		if (previous != null && previous.getHash().equals(hash))
+			return new RecipeDefinition(recipeFile, name, previous.getConfig(), lastModified, length, hash);
+
+		// an unchanged file on boot, skip the yaml and the result building entirely
+		Recipe cached = cache != null ? cache.getRecipe(name, hash) : null;
+		if (cached != null)
+			return new RecipeDefinition(recipeFile, name, null, lastModified, length, hash, cached);
+
+		try {
+			config.loadFromString(new String(contents, StandardCharsets.UTF_8));
+		} catch (InvalidConfigurationException e) {
+			// keep whatever is loaded, a typo must not unload a working recipe
+			logError("Could not parse the recipe file " + recipeFile.getName() + ": " + e.getMessage());
+			return previous;
+		}
+		return new RecipeDefinition(recipeFile, name, config, lastModified, length, hash);
+	}
+
+	String hash(byte[] contents) {
+		try {
+			StringBuilder hex = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA-1").digest(contents))
+				hex.append(String.format("%02x", b));
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// every JVM ships SHA-1, fall back to a weaker hash just in case
+			return Integer.toHexString(Arrays.hashCode(contents));
+		}
+	}
+
+	Recipe buildRecipe(RecipeDefinition definition) {
+		recipeConfig = definition.getConfig();
+		File recipeFile = definition.getFile();
+		String item = definition.getName();
+
+		if (!(recipeConfig.isConfigurationSection(item))) {
+			Main.getInstance().getLogger().log(Level.WARNING,
+					"Could not find configuration section " + item
+							+ " in the recipe file that must match its filename: " + item
+							+ ".yml - (CaSeSeNsItIvE) - Skipping this recipe");
+			return null;
+		}
+
+		Recipe recipe = new Recipe(item);
+
+		ItemStack i = null;
+		ItemMeta m = null;
+
+		List<String> gridRows = getConfig().getStringList(item + ".ItemCrafting");
+		String converter = getConfig().isString(item + ".Converter")
+				? getConfig().getString(item + ".Converter").toLowerCase()
+				: "converterNotDefined";
+		int amountRequirement = 9;
+
+		logDebug("Attempting to add the recipe " + item + "..");
+
+		if (!(hasHavenBag()) && isHavenBag(item)) {
+			logError("Error loading recipe: " + recipeFile.getName());
+			logError("Found a havenbag recipe, but can not find the havenbags plugin. Skipping recipe..");
+			return null;
+		}
+
+		if (!getConfig().isConfigurationSection(item + ".Ingredients")) {
+			logError("Error adding recipe " + recipeFile.getName());
+			logError("Could not locate the ingredients section. Please double check formatting. Skipping recipe..");
+			return null;
+		}
+
+		switch (converter) {
+		case "stonecutter":
+			recipe.setType(RecipeType.STONECUTTER);
+			amountRequirement = 1;
+			break;
+		case "furnace":
+			recipe.setType(RecipeType.FURNACE);
+			amountRequirement = 1;
+			break;
+		default:
+			if (getConfig().isBoolean(item + ".Shapeless") && getConfig().getBoolean(item + ".Shapeless") == true) {
+				recipe.setType(RecipeType.SHAPELESS);
+				break;
+			} else {
+				recipe.setType(RecipeType.SHAPED);
+				break;
+			}
+		}
+
+		if (!Main.getInstance().getCapabilities().hasStonecutter() && recipe.getType() == RecipeType.STONECUTTER) {
+			logError("Error loading recipe " + recipeFile.getName());
+			logError("Got " + converter
+					+ ", but your server version is below 1.14. Expected furnace or no converter (for regular crafting).");
+			return null;
+		}
+
+		// HavenBag detected, but converter is not SHAPED or SHAPELESS
+		if (recipe.getType() != RecipeType.SHAPED && recipe.getType() != RecipeType.SHAPELESS && isHavenBag(item)) {
+			logError("Error loading recipe " + recipeFile.getName());
+			logError("Got " + recipe.getType() + ", but the recipe is a havenbag recipe! Skipping..");
+			return null;
+		}
+
+		String damage = getConfig().getString(item + ".Item-Damage");
+		int amount = getConfig().isInt(item + ".Amount") ? getConfig().getInt(item + ".Amount") : 1;
+		Optional<XMaterial> type = getConfig().isString(item + ".Item")
+				? XMaterial.matchXMaterial(getConfig().getString(item + ".Item").toUpperCase())
+				: null;
+
+		if (type == null || !(validMaterial(recipe.getName(), getConfig().getString(item + ".Item"), type))) {
+			logError("Error loading recipe " + recipeFile.getName());
+			logError("Please double check the 'Item:' material is valid");
+			return null;
+		}
+
+		i = handleItemDamage(i, item, damage, type, amount);
+		i = handleDurability(i, item);
+		i = handleIdentifier(i, item, recipe);
+		i = applyCustomTags(i, item);
+		i = handleEnchants(i, item);
+		i = handleCustomEnchants(i, item);
+
+		m = handleDisplayname(item, i);
+		m = handleHideEnchants(item, m);
+		m = handleCustomModelData(item, m);
+		m = handleAttributes(item, m);
+		m = handleFlags(item, m);
+		m = handleLore(item, m);
+		i.setItemMeta(m);
+
+		if (isHavenBag(item))
+			i = handleBagCreation(i.getType(), item);
+
+		handlePlaceable(item, recipe);
+		handleEffects(item, recipe);
+		handleBucketConsume(i.getType(), item, recipe);
+		recipe.setResult(i);
+
+		if (getConfig().getBoolean(item + ".Custom-Tagged") == true)
+			recipe.setTagged(true);
+
+		ArrayList<String> slotsAbbreviations = new ArrayList<String>();
+		String row1 = gridRows.get(0);
+		String row2 = gridRows.get(1);
+		String row3 = gridRows.get(2);
+
+		slotsAbbreviations.add(row1.split("")[0]);
+		slotsAbbreviations.add(row1.split("")[1]);
+		slotsAbbreviations.add(row1.split("")[2]);
+
+		slotsAbbreviations.add(row2.split("")[0]);
+		slotsAbbreviations.add(row2.split("")[1]);
+		slotsAbbreviations.add(row2.split("")[2]);
+
+		slotsAbbreviations.add(row3.split("")[0]);
+		slotsAbbreviations.add(row3.split("")[1]);
+		slotsAbbreviations.add(row3.split("")[2]);
+
+		recipe.setRow(1, row1);
+		recipe.setRow(2, row2);
+		recipe.setRow(3, row3);
+
+		int slot = 0;
+		int count = 0;
+
+		for (String abbreviation : slotsAbbreviations) {
+			// Iterate through the specified 9x9 grid and get it from the Ingredients
+			// section..
+			slot++;
+
+			RecipeUtil.Ingredient recipeIngredient;
+
+			// adds the abbreviation for AIR automatically to the recipe
+			if (abbreviation.equalsIgnoreCase("X")) {
+				recipeIngredient = new RecipeUtil.Ingredient("X", Material.AIR);
 				recipeIngredient.setSlot(slot);
 				recipe.addIngredient(recipeIngredient);
-
-				if (recipe.getType() != RecipeType.SHAPED && recipe.getType() != RecipeType.SHAPELESS)
-					break;
+				continue;
 			}
 
-			logDebug("Successfully added " + item + " with the amount output of " + i.getAmount());
+			String configPath = item + ".Ingredients." + abbreviation;
+			String material = getConfig().getString(configPath + ".Material");
+			Optional<XMaterial> rawMaterial = XMaterial.matchXMaterial(material);
 
-			if (getConfig().isBoolean(item + ".Enabled"))
-				recipe.setActive(getConfig().getBoolean(item + ".Enabled"));
+			if (!validMaterial(recipe.getName(), material, rawMaterial)) {
+				return null;
+			}
 
-			if (getConfig().isString(item + ".Permission"))
-				recipe.setPerm(getConfig().getString(item + ".Permission"));
+			Material ingredientMaterial = rawMaterial.get().parseMaterial();
 
-			recipeUtil.createRecipe(recipe);
+			count++;
+			if (count > amountRequirement) {
+				logError("Error loading recipe " + recipeFile.getName());
+				logError("Found " + amountRequirement + " slots but converter is " + converter
+						+ " so use only one slot" + " (X for others) for 'ItemCrafting'");
+				return null;
+			}
+
+			String ingredientName = getConfig().isString(configPath + ".Name")
+					? getConfig().getString(configPath + ".Name")
+					: null;
+			String ingredientIdentifier = getConfig().isString(configPath + ".Identifier")
+					? getConfig().getString(configPath + ".Identifier")
+					: null;
+			int ingredientAmount = getConfig().isInt(configPath + ".Amount")
+					? getConfig().getInt(configPath + ".Amount")
+					: 1;
+
+			logDebug("[HandlingIngredient] Ingredient Name: " + ingredientName);
+			logDebug("[HandlingIngredient] Ingredient Identifier: " + ingredientIdentifier);
+			logDebug("[HandlingIngredient] Ingredient Type: " + ingredientMaterial);
+			logDebug("[HandlingIngredient] Ingredient Amount: " + ingredientAmount);
+
+			recipeIngredient = new RecipeUtil.Ingredient(abbreviation, ingredientMaterial);
+			recipeIngredient.setDisplayName(ingredientName);
+			recipeIngredient.setIdentifier(ingredientIdentifier);
+			recipeIngredient.setAmount(ingredientAmount);
+			recipeIngredient.setSlot(slot);
+			recipe.addIngredient(recipeIngredient);
+
+			if (recipe.getType() != RecipeType.SHAPED && recipe.getType() != RecipeType.SHAPELESS)
+				break;
 		}
 
-		recipeUtil.reloadRecipes();
+		logDebug("Successfully added " + item + " with the amount output of " + i.getAmount());
+
+		if (getConfig().isBoolean(item + ".Enabled"))
+			recipe.setActive(getConfig().getBoolean(item + ".Enabled"));
+
+		if (getConfig().isString(item + ".Permission"))
+			recipe.setPerm(getConfig().getString(item + ".Permission"));
+
+		return recipe;
 	}
 
 	public void addRecipesFromAPI(Recipe specificRecipe) {
 		RecipeUtil recipeUtil = Main.getInstance().recipeUtil;
-		HashMap<String, Recipe> recipeList = recipeUtil.getAllRecipes();
 
 		if (specificRecipe != null) {
-			recipeList.clear();
-			recipeList.put(specificRecipe.getName(), specificRecipe);
+			registerRecipes(Collections.singletonList(specificRecipe));
+			return;
 		}
 
-		for (Recipe recipe : recipeList.values()) {
+		if (recipeUtil.getAllRecipes() != null)
+			registerRecipes(new ArrayList<>(recipeUtil.getAllRecipes().values()));
+	}
+
+	public void registerRecipes(Collection<Recipe> recipeList) {
+		for (Recipe recipe : recipeList) {
 			try {
 				ShapedRecipe shapedRecipe = null;
 				ShapelessRecipe shapelessRecipe = null;
@@ -680,7 +957,7 @@ public class RecipeManager {
 	private ShapelessRecipe createShapelessRecipe(Recipe recipe) {
 		ShapelessRecipe shapelessRecipe;
 
-		if (Main.getInstance().serverVersionAtLeast(1, 12)) {
+		if (Main.getInstance().getCapabilities().hasNamespacedKeys()) {
 			shapelessRecipe = new ShapelessRecipe(createNamespacedKey(recipe), recipe.getResult());
 		} else {
 			shapelessRecipe = new ShapelessRecipe(recipe.getResult());
@@ -701,13 +978,13 @@ public class RecipeManager {
 
 		ArrayList<String> ingredients = new ArrayList<String>();
 
-		if (Main.getInstance().serverVersionAtLeast(1, 12)) {
+		if (Main.getInstance().getCapabilities().hasNamespacedKeys()) {
 			shapedRecipe = new ShapedRecipe(createNamespacedKey(recipe), recipe.getResult());
 		} else {
 			shapedRecipe = new ShapedRecipe(recipe.getResult());
 		}
 
-		shapedRecipe.shape(recipe.getRow(1), recipe.getRow(2), recipe.getRow(3));
+		shapedRecipe.shape(trimShape(recipe.getRow(1), recipe.getRow(2), recipe.getRow(3)));
 		for (RecipeUtil.Ingredient ingredient : recipe.getIngredients()) {
 			if (ingredient.getMaterial() == Material.AIR || ingredients.contains(ingredient.getAbbreviation()))
 				continue;
@@ -718,9 +995,39 @@ public class RecipeManager {
 		return shapedRecipe;
 	}
 
+	// Cuts the empty (X) rows and columns off a shape, so the server accepts the
+	// recipe anywhere in the grid and in the 2x2 inventory grid when it fits
+	String[] trimShape(String... rows) {
+		int minRow = rows.length, maxRow = -1, minCol = Integer.MAX_VALUE, maxCol = -1;
+
+		for (int row = 0; row < rows.length; row++) {
+			for (int col = 0; col < rows[row].length(); col++) {
+				if (Character.toUpperCase(rows[row].charAt(col)) == 'X')
+					continue;
+
+				minRow = Math.min(minRow, row);
+				maxRow = Math.max(maxRow, row);
+				minCol = Math.min(minCol, col);
+				maxCol = Math.max(maxCol, col);
+			}
+		}
+
+		if (maxRow == -1)
+			return rows;
+
+		String[] trimmed = new String[maxRow - minRow + 1];
+		for (int row = minRow; row <= maxRow; row++) {
+			StringBuilder shape = new StringBuilder(rows[row]);
+			while (shape.length() <= maxCol)
+				shape.append('X');
+			trimmed[row - minRow] = shape.substring(minCol, maxCol + 1);
+		}
+		return trimmed;
+	}
+
 	@SuppressWarnings("deprecation")
 	private FurnaceRecipe createFurnaceRecipe(Recipe recipe) {
-		if (Main.getInstance().serverVersionAtLeast(1, 12)) {
+		if (Main.getInstance().getCapabilities().hasNamespacedKeys()) {
 			return new FurnaceRecipe(createNamespacedKey(recipe), recipe.getResult(), recipe.getSlot(1).getMaterial(),
 					recipe.getExperience(), recipe.getCookTime());
 		} else {
@@ -729,7 +1036,7 @@ public class RecipeManager {
 	}
 
 	private StonecuttingRecipe createStonecuttingRecipe(Recipe recipe) {
-		if (!Main.getInstance().serverVersionAtLeast(1, 14)) {
+		if (!Main.getInstance().getCapabilities().hasStonecutter()) {
 			logError("Error loading recipe " + recipe.getName()
 					+ ". Your server version does not Stonecutting recipes!");
 			return null;
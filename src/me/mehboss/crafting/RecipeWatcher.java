@@ -0,0 +1,162 @@
+package me.mehboss.crafting;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+
+import me.mehboss.recipe.Main;
+
+/**
+ * Watches the recipes folder and applies edited, added or deleted recipe files
+ * without a full reload. Bursts of changes are collected until the folder has
+ * been quiet for a moment, then only the touched files are parsed on the
+ * watcher thread and handed to the main thread.
+ */
+public class RecipeWatcher implements Runnable {
+
+	// how long the folder has to be quiet before the changes are applied
+	private static final long DEBOUNCE_MILLIS = 1000L;
+
+	private final RecipeManager recipeManager;
+	private final File recipeFolder;
+
+	private WatchService watchService;
+	private Thread thread;
+
+	public RecipeWatcher(RecipeManager recipeManager, File recipeFolder) {
+		this.recipeManager = recipeManager;
+		this.recipeFolder = recipeFolder;
+	}
+
+	public void start() {
+		try {
+			watchService = FileSystems.getDefault().newWatchService();
+			recipeFolder.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		} catch (IOException e) {
+			Main.getInstance().getLogger().log(Level.WARNING,
+					"Could not watch the recipes folder, use /crecipe reload to apply changes: " + e.getMessage());
+			return;
+		}
+
+		thread = new Thread(this, "CustomRecipes-Watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public void stop() {
+		if (watchService == null)
+			return;
+
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			// the watcher thread exits either way
+		}
+		watchService = null;
+
+		if (thread == null)
+			return;
+
+		thread.interrupt();
+		try {
+			thread.join(DEBOUNCE_MILLIS * 5);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		thread = null;
+	}
+
+	@Override
+	public void run() {
+		WatchService service = watchService;
+
+		try {
+			while (true) {
+				HashSet<String> touched = new HashSet<>();
+				WatchKey key = service.take();
+
+				// keep collecting until no event arrives within the debounce window
+				while (key != null) {
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.context() instanceof Path)
+							touched.add(((Path) event.context()).getFileName().toString());
+					}
+					key.reset();
+					key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+				}
+
+				applyChanges(touched);
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// stopped
+		}
+	}
+
+	private void applyChanges(HashSet<String> touched) {
+		List<RecipeDefinition> definitions = new ArrayList<>();
+		List<String> removed = new ArrayList<>();
+
+		for (String fileName : touched) {
+			if (!fileName.toLowerCase().endsWith(".yml"))
+				continue;
+
+			File recipeFile = new File(recipeFolder, fileName);
+			String name = fileName.replace(".yml", "");
+
+			if (recipeFile.isFile()) {
+				RecipeDefinition previous = recipeManager.getLoadedFile(name);
+				RecipeDefinition definition = recipeManager.parseRecipeFile(recipeFile, previous);
+
+				// the previous definition comes back for an untouched file or one that
+				// could not be read or parsed, like a half saved edit
+				if (definition != null && definition != previous)
+					definitions.add(definition);
+			} else
+				removed.add(name);
+		}
+
+		if ((definitions.isEmpty() && removed.isEmpty()) || !Main.getInstance().isEnabled())
+			return;
+
+		Bukkit.getScheduler().runTask(Main.getInstance(), () -> {
+			// a reload or a save may have applied a newer version while these were parsed
+			definitions.removeIf(this::isStale);
+			removed.removeIf(name -> new File(recipeFolder, name + ".yml").isFile());
+
+			if (!definitions.isEmpty() || !removed.isEmpty())
+				recipeManager.applyDefinitions(definitions, removed);
+		});
+	}
+
+	/**
+	 * Getter for checking if a parsed definition is older than what is loaded or
+	 * on disk, main thread only
+	 *
+	 * @param definition the definition parsed by the watcher thread
+	 * @returns true if applying it would overwrite a newer version, false otherwise
+	 */
+	private boolean isStale(RecipeDefinition definition) {
+		if (!definition.isCurrent())
+			return true;
+
+		RecipeDefinition loaded = recipeManager.getLoadedFile(definition.getName());
+		if (loaded == null || loaded.getHash().equals(definition.getHash()))
+			return false;
+
+		return loaded.getLastModified() > definition.getLastModified();
+	}
+}
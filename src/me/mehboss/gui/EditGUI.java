@@ -134,11 +134,12 @@ public class EditGUI implements Listener {
 
 		}
 
-		ItemStack result = NBTEditor.contains(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER")
+		// copy so the placeholder lore is not written into the registered result
+		ItemStack result = new ItemStack(NBTEditor.contains(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER")
 				? recipeUtil
 						.getRecipeFromKey(NBTEditor.getString(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER"))
 						.getResult()
-				: Main.getInstance().giveRecipe.get(configname.toLowerCase());
+				: Main.getInstance().giveRecipe.get(configname.toLowerCase()));
 
 		ItemMeta resultM = result.getItemMeta();
 
@@ -2,15 +2,25 @@ package me.mehboss.gui;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -19,39 +29,122 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.bananapuncher714.nbteditor.NBTEditor;
+import me.mehboss.crafting.RecipeDefinition;
+import me.mehboss.crafting.RecipeManager;
 import me.mehboss.recipe.Main;
 
 public class RecipeSaver {
 
+	// one writer thread, so saves of the same recipe land in the order they were made
+	private static ExecutorService writer = null;
+
 	// Save the recipe map to the configuration file
 	public void saveRecipe(Inventory inv, Player p, String recipeName) {
 
 		File recipesFolder = new File(Main.getInstance().getDataFolder(), "recipes");
 
-		// Ensure the 'recipes' folder exists
-		if (!recipesFolder.exists()) {
-			recipesFolder.mkdirs();
-		}
-
 		// Create the specific recipe YAML file (e.g., CursedPick.yml)
 		File recipeFile = new File(recipesFolder, recipeName + ".yml");
-		FileConfiguration recipeConfig = YamlConfiguration.loadConfiguration(recipeFile);
 
-		// Set the recipe data under a unique recipe name
+		// Set the recipe data under a unique recipe name, the inventory can only be read on the main thread
 		Map<String, Object> recipeData = convertToRecipeConfig(inv);
+		p.closeInventory();
+
+		getWriter().execute(() -> {
+			RecipeManager recipeManager = Main.getInstance().plugin;
+			RecipeDefinition definition = null;
+
+			try {
+				writeRecipe(recipeFile, recipeName, recipeData);
+				definition = recipeManager.parseRecipeFile(recipeFile, null);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+
+			RecipeDefinition saved = definition;
+			if (!Main.getInstance().isEnabled())
+				return;
+
+			Bukkit.getScheduler().runTask(Main.getInstance(), () -> {
+				if (saved == null) {
+					if (p.isOnline())
+						p.sendMessage("Failed to save the recipe to " + recipeFile.getName() + ".");
+					return;
+				}
+
+				// only the saved recipe is registered again, a recipe that fails to build keeps the old version
+				List<String> failed = recipeManager.applyDefinitions(Collections.singletonList(saved),
+						Collections.emptyList());
+				if (!p.isOnline())
+					return;
+
+				if (!failed.isEmpty()) {
+					boolean kept = Main.getInstance().recipeUtil.getRecipe(recipeName) != null;
+					p.sendMessage("Saved " + recipeFile.getName() + " but the recipe could not be loaded, check the console."
+							+ (kept ? " The previous version is still active." : ""));
+				} else
+					p.sendMessage("Recipe saved successfully to " + recipeFile.getName() + "!");
+			});
+		});
+	}
+
+	/**
+	 * Writes a recipe to its file through a temporary file, so the recipe file is
+	 * never left half written. Other sections in the file are kept.
+	 * 
+	 * @param recipeFile the recipe file
+	 * @param recipeName the section to write the recipe to
+	 * @param recipeData the recipe settings
+	 * @throws IOException if the file could not be written
+	 */
+	void writeRecipe(File recipeFile, String recipeName, Map<String, Object> recipeData) throws IOException {
+		// Ensure the 'recipes' folder exists
+		if (!recipeFile.getParentFile().exists()) {
+			recipeFile.getParentFile().mkdirs();
+		}
+
+		FileConfiguration recipeConfig = YamlConfiguration.loadConfiguration(recipeFile);
 		recipeConfig.set(recipeName, recipeData);
 
+		// the .tmp name is ignored by the recipe loader and watcher
+		File tempFile = new File(recipeFile.getParentFile(), recipeFile.getName() + ".tmp");
+		Files.write(tempFile.toPath(), recipeConfig.saveToString().getBytes(StandardCharsets.UTF_8));
+
 		try {
-			recipeConfig.save(recipeFile); // This step is required to persist changes!
-			p.sendMessage("Recipe saved successfully to " + recipeFile.getName() + "!");
-		} catch (IOException e) {
-			e.printStackTrace();
-			p.sendMessage("Failed to save the recipe to " + recipeFile.getName() + ".");
+			Files.move(tempFile.toPath(), recipeFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempFile.toPath(), recipeFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
 		}
+	}
 
-		Main.getInstance().reload();
-		p.closeInventory();
+	private static synchronized ExecutorService getWriter() {
+		if (writer == null) {
+			writer = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "CustomRecipes-Saver");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return writer;
+	}
 
+	/**
+	 * Waits for the pending recipe saves to be written, used when the plugin
+	 * disables
+	 */
+	public static synchronized void shutdown() {
+		if (writer == null)
+			return;
+
+		writer.shutdown();
+		try {
+			if (!writer.awaitTermination(10, TimeUnit.SECONDS))
+				Main.getInstance().getLogger().log(Level.WARNING, "Timed out while saving the edited recipes!");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		writer = null;
 	}
 
 	@SuppressWarnings("deprecation")
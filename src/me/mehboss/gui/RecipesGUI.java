@@ -1,20 +1,24 @@
 package me.mehboss.gui;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
 import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.ShapedRecipe;
@@ -26,6 +30,8 @@ import com.cryptomorin.xseries.XMaterial;
 import io.github.bananapuncher714.nbteditor.NBTEditor;
 import me.clip.placeholderapi.PlaceholderAPI;
 import me.mehboss.recipe.Main;
+import me.mehboss.utils.RecipeUtil;
+import me.mehboss.utils.RecipeUtil.Recipe;
 
 public class RecipesGUI implements Listener {
 
@@ -89,7 +95,7 @@ public class RecipesGUI implements Listener {
 					}
 
 					if (e.getRawSlot() == 50) {
-						if (e.getInventory().firstEmpty() != -1) {
+						if (currentpage >= getPages(p)) {
 							return;
 						}
 
@@ -116,7 +122,11 @@ public class RecipesGUI implements Listener {
 				if (e.getRawSlot() < 19 || e.getRawSlot() > 34 || e.getRawSlot() == 26 || e.getRawSlot() == 27)
 					return;
 				
-				String name = Main.getInstance().recipeUtil.getRecipeFromResult(e.getCurrentItem()).getName();
+				Recipe clicked = Main.getInstance().recipeUtil.getRecipeFromResult(e.getCurrentItem());
+				if (clicked == null)
+					return;
+
+				String name = clicked.getName();
 				if (NBTEditor.contains(e.getCurrentItem(), "CUSTOM_ITEM_IDENTIFIER")
 						|| Main.getInstance().giveRecipe.containsKey(name.toLowerCase())) {
 
@@ -146,48 +156,163 @@ public class RecipesGUI implements Listener {
 
 	int slots;
 
+	// the rendered recipe book, rebuilt when the registry changes
+	private static RecipeUtil cachedRegistry = null;
+	private static int cachedVersion = -1;
+	private static ArrayList<String> sortedNames = new ArrayList<>();
+	private static HashMap<String, ItemStack> displayItems = new HashMap<>();
+
+	// the distinct recipe permissions, and the one each sorted recipe needs (-1 for none)
+	private static ArrayList<String> permissions = new ArrayList<>();
+	private static int[] requiredPermission = new int[0];
+
+	// the recipes each player can see, with the permissions they had when it was built
+	private static HashMap<UUID, VisibleIndex> visible = new HashMap<>();
+
+	private ItemStack stained = null;
+	private ItemStack greenstained = null;
+	private ItemStack redstained = null;
+	private ItemStack orangestained = null;
+	private ItemStack blacklisted = null;
+
+	private static final int PAGE_SIZE = 14;
+
 	private void items(Player p, Inventory inv, int page) {
 
 		int[] slots = { 19, 20, 21, 22, 23, 24, 25, 28, 29, 30, 31, 32, 33, 34 };
-		ArrayList<String> items = new ArrayList<>(Main.getInstance().recipeUtil.getRecipeNames());
-		Collections.sort(items);
-
-		int startSlot = page * slots.length;
-		int currentSlot = 0;
-		for (int slot = 0; slot < slots.length; slot++) {
-			int index = startSlot + slot;
-			if (index >= items.size()) {
-				break;
-			}
+		List<String> names = getVisibleRecipes(p);
+
+		int startSlot = Math.max(0, page) * PAGE_SIZE;
+		int endSlot = Math.min(names.size(), startSlot + PAGE_SIZE);
+		for (int index = startSlot; index < endSlot; index++)
+			inv.setItem(slots[index - startSlot], displayItems.get(names.get(index)));
+
+		createPanes();
+		defaults(inv, redstained, orangestained, greenstained, stained);
+	}
+
+	/**
+	 * Getter for the amount of recipe book pages a player can browse
+	 * 
+	 * @param p the player, null for every recipe
+	 * @returns the page count, at least 1
+	 */
+	public int getPages(Player p) {
+		return Math.max(1, (getVisibleRecipes(p).size() + PAGE_SIZE - 1) / PAGE_SIZE);
+	}
+
+	/**
+	 * Getter for the sorted names of the recipes a player is allowed to see. The
+	 * list is built the first time the player opens the menu and reused until
+	 * the recipes or the player's recipe permissions change.
+	 * 
+	 * @param p the player, null for every recipe
+	 * @returns the visible recipe names, do not modify
+	 */
+	List<String> getVisibleRecipes(Player p) {
+		refreshCache(Main.getInstance().recipeUtil);
+
+		if (p == null || p.hasPermission("crecipe.gui"))
+			return sortedNames;
+
+		BitSet granted = new BitSet(permissions.size());
+		for (int i = 0; i < permissions.size(); i++) {
+			if (p.hasPermission(permissions.get(i)))
+				granted.set(i);
+		}
+
+		VisibleIndex index = visible.get(p.getUniqueId());
+		if (index != null && index.granted.equals(granted))
+			return index.names;
 
-			try {
-				ItemStack item = new ItemStack(Main.getInstance().giveRecipe.get(items.get(index).toLowerCase()));
-				ItemMeta itemM = item.getItemMeta();
+		ArrayList<String> names = new ArrayList<>();
+		for (int i = 0; i < sortedNames.size(); i++) {
+			if (requiredPermission[i] == -1 || granted.get(requiredPermission[i]))
+				names.add(sortedNames.get(i));
+		}
+
+		visible.put(p.getUniqueId(), new VisibleIndex(granted, names));
+		return names;
+	}
+
+	/**
+	 * Rebuilds the sorted recipe names, their display items and permissions if
+	 * recipes were added or removed since the last time the menu was rendered
+	 * 
+	 * @param recipeUtil the current recipe registry
+	 */
+	private static void refreshCache(RecipeUtil recipeUtil) {
+		if (cachedRegistry == recipeUtil && cachedVersion == recipeUtil.getVersion())
+			return;
 
-				item.setItemMeta(itemM);
+		ArrayList<String> names = new ArrayList<>();
+		HashMap<String, ItemStack> items = new HashMap<>();
+		ArrayList<String> perms = new ArrayList<>();
+		HashMap<String, Integer> permIds = new HashMap<>();
 
-				String loc = items.get(index);
-				if (p != null && !p.hasPermission("crecipe.gui")
-						&& !p.hasPermission(getConfig(loc).getString(loc + ".Permission")))
-					continue;
+		if (recipeUtil.getRecipeNames() != null)
+			names.addAll(recipeUtil.getRecipeNames());
+		Collections.sort(names);
 
-				inv.setItem(slots[currentSlot], item);
-				currentSlot++;
-			} catch (Exception e) {
+		Iterator<String> it = names.iterator();
+		while (it.hasNext()) {
+			String name = it.next();
+			Recipe recipe = recipeUtil.getRecipe(name);
+			if (recipe == null || !Main.getInstance().giveRecipe.containsKey(name.toLowerCase())) {
 				Main.getInstance().getLogger().log(Level.SEVERE,
-						"Can not parse itemstack for recipe " + items.get(index).toLowerCase() + ". Skipping for now.");
-				e.printStackTrace();
+						"Can not parse itemstack for recipe " + name.toLowerCase() + ". Skipping for now.");
+				it.remove();
+				continue;
 			}
+
+			// shared with the crafting table, inventories copy what they are given
+			items.put(name, recipe.getResultTemplate().getBase());
 		}
-		ItemStack stained = createItem("stainedG", XMaterial.BLACK_STAINED_GLASS_PANE, " ", (String[]) null);
-		ItemStack greenstained = createItem("stainedG", XMaterial.GREEN_STAINED_GLASS_PANE,
+
+		int[] required = new int[names.size()];
+		for (int i = 0; i < names.size(); i++) {
+			Recipe recipe = recipeUtil.getRecipe(names.get(i));
+			String perm = recipe == null ? null : recipe.getPerm();
+
+			if (perm == null) {
+				required[i] = -1;
+				continue;
+			}
+
+			Integer id = permIds.get(perm);
+			if (id == null) {
+				id = perms.size();
+				permIds.put(perm, id);
+				perms.add(perm);
+			}
+			required[i] = id;
+		}
+
+		sortedNames = names;
+		displayItems = items;
+		permissions = perms;
+		requiredPermission = required;
+		visible.clear();
+		cachedRegistry = recipeUtil;
+		cachedVersion = recipeUtil.getVersion();
+	}
+
+	private void createPanes() {
+		if (stained != null)
+			return;
+
+		stained = createItem("stainedG", XMaterial.BLACK_STAINED_GLASS_PANE, " ", (String[]) null);
+		greenstained = createItem("stainedG", XMaterial.GREEN_STAINED_GLASS_PANE,
 				ChatColor.LIGHT_PURPLE + "Add Recipe", (String[]) null);
-		ItemStack redstained = createItem("stainedG", XMaterial.RED_STAINED_GLASS_PANE, ChatColor.RED + "Previous Page",
+		redstained = createItem("stainedG", XMaterial.RED_STAINED_GLASS_PANE, ChatColor.RED + "Previous Page",
 				"none");
-		ItemStack orangestained = createItem("stainedG", XMaterial.ORANGE_STAINED_GLASS_PANE,
-				ChatColor.GREEN + "Next Page", (String[]) null);
+		orangestained = createItem("stainedG", XMaterial.ORANGE_STAINED_GLASS_PANE, ChatColor.GREEN + "Next Page",
+				(String[]) null);
+	}
 
-		defaults(inv, redstained, orangestained, greenstained, stained);
+	@EventHandler
+	public void onQuit(PlayerQuitEvent e) {
+		visible.remove(e.getPlayer().getUniqueId());
 	}
 
 	public void defaults(Inventory i, ItemStack r, ItemStack o, ItemStack g, ItemStack d) {
@@ -197,12 +322,11 @@ public class RecipesGUI implements Listener {
 		for (int ii : set)
 			i.setItem(ii, d);
 
-		ItemStack bl = new ItemStack(XMaterial.WRITABLE_BOOK.parseItem());
-		ItemMeta bm = bl.getItemMeta();
-		bm.setDisplayName(ChatColor.DARK_AQUA + "Blacklisted Recipes");
-		bl.setItemMeta(bm);
+		if (blacklisted == null)
+			blacklisted = createItem("blacklisted", XMaterial.WRITABLE_BOOK,
+					ChatColor.DARK_AQUA + "Blacklisted Recipes", (String[]) null);
 
-		i.setItem(4, bl);
+		i.setItem(4, blacklisted);
 		i.setItem(48, r);
 		i.setItem(49, g);
 		i.setItem(50, o);
@@ -210,24 +334,13 @@ public class RecipesGUI implements Listener {
 
 	public void setDefaults(Player p, Inventory inv) {
 		if (Main.getInstance().recipeBook.contains(p.getUniqueId())) {
-			ItemStack stained = new ItemStack(XMaterial.BLACK_STAINED_GLASS_PANE.parseItem());
-			ItemMeta s = stained.getItemMeta();
-			s.setDisplayName(" ");
-			stained.setItemMeta(s);
+			createPanes();
 
 			inv.setItem(4, stained);
 			inv.setItem(49, stained);
 		}
 	}
 
-	FileConfiguration getConfig(String recipeName) {
-		File dataFolder = Main.getInstance().getDataFolder();
-		File recipesFolder = new File(dataFolder, "recipes");
-		File recipeFile = new File(recipesFolder, recipeName + ".yml");
-
-		return YamlConfiguration.loadConfiguration(recipeFile);
-	}
-
 	public ItemStack createItem(String id, XMaterial material, String name, String... lore) {
 		ItemStack item = new ItemStack(material.parseItem());
 		ItemMeta meta = item.getItemMeta();
@@ -248,4 +361,14 @@ public class RecipesGUI implements Listener {
 		setDefaults(p, inv);
 		p.openInventory(inv);
 	}
-}
\ No newline at end of file
+
+	static class VisibleIndex {
+		private final BitSet granted;
+		private final List<String> names;
+
+		VisibleIndex(BitSet granted, List<String> names) {
+			this.granted = granted;
+			this.names = names;
+		}
+	}
+}
@@ -14,6 +14,7 @@ import org.bukkit.inventory.ItemStack;
 
 import io.github.bananapuncher714.nbteditor.NBTEditor;
 import me.mehboss.recipe.Main;
+import me.mehboss.utils.CraftingStats;
 import me.mehboss.utils.RecipeUtil;
 import me.mehboss.utils.RecipeUtil.Recipe;
 
@@ -28,33 +29,35 @@ public class BlockManager implements Listener {
 
 		Recipe recipe = null;
 		String key = null;
+		long start = System.nanoTime();
 
-		ItemStack item = e.getItemInHand();
+		try {
+			ItemStack item = e.getItemInHand();
 
-		if (item.getType() != Material.AIR && item.hasItemMeta()
-				&& NBTEditor.contains(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER")) {
-			key = NBTEditor.getString(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER");
-		}
+			if (item.getType() != Material.AIR && item.hasItemMeta()
+					&& NBTEditor.contains(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER")) {
+				key = NBTEditor.getString(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER");
+			}
 
-		if (key != null && recipeUtil.getRecipeFromKey(key) != null)
-			recipe = recipeUtil.getRecipeFromKey(key);
+			if (key != null)
+				recipe = recipeUtil.getRecipeFromKey(key);
 
-		if (recipe == null)
-			if (recipeUtil.getRecipeFromResult(item) != null) {
+			if (recipe == null)
 				recipe = recipeUtil.getRecipeFromResult(item);
-			}
 
-		if (recipe == null || recipe.isPlaceable())
-			return;
-
-		e.setCancelled(true);
-		String message = Main.getInstance().getConfig().isSet("Messages.No-Perm-Place")
-				? Main.getInstance().getConfig().getString("Messages.No-Perm-Place")
-				: null;
+			if (recipe == null || recipe.isPlaceable())
+				return;
 
-		if (message != null && !message.equalsIgnoreCase("none"))
-			e.getPlayer().sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+			e.setCancelled(true);
+			String message = Main.getInstance().getConfig().isSet("Messages.No-Perm-Place")
+					? Main.getInstance().getConfig().getString("Messages.No-Perm-Place")
+					: null;
 
+			if (message != null && !message.equalsIgnoreCase("none"))
+				e.getPlayer().sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+		} finally {
+			Main.getInstance().craftingStats.record(CraftingStats.PLACE, start, recipe);
+		}
 	}
 
 	FileConfiguration getConfig(String recipeName) {
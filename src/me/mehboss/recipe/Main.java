@@ -2,6 +2,8 @@ package me.mehboss.recipe;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,7 +18,6 @@ import org.bukkit.Keyed;
 import org.bukkit.NamespacedKey;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -27,6 +28,7 @@ import org.bukkit.inventory.Recipe;
 import org.bukkit.inventory.ShapedRecipe;
 import org.bukkit.inventory.ShapelessRecipe;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 
 import com.cryptomorin.xseries.XMaterial;
 
@@ -34,16 +36,22 @@ import me.mehboss.commands.GiveRecipe;
 import me.mehboss.commands.NBTCommands;
 import me.mehboss.commands.TabCompletion;
 import me.mehboss.crafting.AmountManager;
+import me.mehboss.crafting.Blacklist;
 import me.mehboss.crafting.CraftManager;
 import me.mehboss.crafting.RecipeManager;
+import me.mehboss.crafting.RecipeWatcher;
 import me.mehboss.gui.EditGUI;
 import me.mehboss.gui.InventoryManager;
+import me.mehboss.gui.RecipeSaver;
 import me.mehboss.gui.RecipesGUI;
 import me.mehboss.listeners.BlockManager;
 import me.mehboss.listeners.EffectsManager;
+import me.mehboss.utils.ConfigWriter;
+import me.mehboss.utils.CraftingStats;
 import me.mehboss.utils.Metrics;
 import me.mehboss.utils.Placeholders;
 import me.mehboss.utils.RecipeUtil;
+import me.mehboss.utils.ServerCapabilities;
 import me.mehboss.utils.UpdateChecker;
 import net.md_5.bungee.api.ChatMessageType;
 import net.md_5.bungee.api.chat.TextComponent;
@@ -63,6 +71,7 @@ public class Main extends JavaPlugin implements Listener {
 	ArrayList<ShapedRecipe> recipe = new ArrayList<ShapedRecipe>();
 	public ArrayList<String> addRecipe = new ArrayList<String>();
 	public ArrayList<String> disabledrecipe = new ArrayList<String>();
+	public Blacklist blacklist = null;
 	// add three more shapelessname, amount, and ID specifically for config.
 
 	File customYml = new File(getDataFolder() + "/blacklisted.yml");
@@ -86,7 +95,12 @@ public class Main extends JavaPlugin implements Listener {
 	String newupdate = null;
 
 	public RecipeUtil recipeUtil;
+	ServerCapabilities capabilities;
 	public InventoryManager guiUtil;
+	RecipeWatcher recipeWatcher;
+	BukkitTask statsDump;
+	public CraftingStats craftingStats = new CraftingStats();
+	ConfigWriter configWriter = new ConfigWriter(this);
 	public Boolean debug = false;
 
 	public RecipeUtil getRecipeUtil() {
@@ -97,7 +111,7 @@ public class Main extends JavaPlugin implements Listener {
 		PluginCommand crecipeCommand = getCommand("crecipe");
 		crecipeCommand.setExecutor(new GiveRecipe(this));
 
-		if (serverVersionAtLeast(1, 15)) {
+		if (getCapabilities().hasTabCompletion()) {
 			TabCompletion tabCompleter = new TabCompletion();
 			crecipeCommand.setTabCompleter(tabCompleter);
 		}
@@ -157,49 +171,73 @@ public class Main extends JavaPlugin implements Listener {
 			saveResource("recipes/HavenBag.yml", false);
 		}
 
-		if (ymlFile.exists() && ymlConfig != null) {
-			try {
-				ymlConfig.save(ymlFile);
-			} catch (IOException e) {
-				return;
-
-			}
-		}
+		// written on the next tick, and only if the configuration changed
+		if (ymlFile.exists() && ymlConfig != null)
+			configWriter.save(ymlConfig, ymlFile);
 	}
 
+	/**
+	 * Writes every configuration file with pending changes. Recipe files that
+	 * were not changed in memory are left untouched, along with their formatting.
+	 */
 	public void saveAllCustomYml() {
-		// Get the directory for the "recipes" folder
-		File recipesFolder = new File(getDataFolder(), "recipes");
+		configWriter.flush();
+	}
 
-		// Check if the folder exists
-		if (!recipesFolder.exists() || !recipesFolder.isDirectory()) {
+	void startRecipeWatcher() {
+		stopRecipeWatcher();
+
+		if (!getConfig().getBoolean("Watch-Recipes"))
 			return;
-		}
 
-		// Get all files in the "recipes" folder
-		File[] recipeFiles = recipesFolder.listFiles();
+		recipeWatcher = new RecipeWatcher(plugin, new File(getDataFolder(), "recipes"));
+		recipeWatcher.start();
+	}
+
+	void stopRecipeWatcher() {
+		if (recipeWatcher == null)
+			return;
+
+		recipeWatcher.stop();
+		recipeWatcher = null;
+	}
 
-		// Iterate over each file
-		for (File recipeFile : recipeFiles) {
-			// Check if it's a file (not a directory)
-			if (recipeFile.isFile()) {
-				// Get the file name and extension
-				String fileName = recipeFile.getName();
-				String fileExtension = fileName.substring(fileName.lastIndexOf(".") + 1);
+	void startStatsDump() {
+		stopStatsDump();
+
+		long minutes = getConfig().getLong("Stats-Dump-Minutes");
+		if (minutes <= 0)
+			return;
 
-				if (fileExtension.equalsIgnoreCase("yml")) {
-					// Load the file configuration
-					FileConfiguration recipeConfig = YamlConfiguration.loadConfiguration(recipeFile);
+		File statsFile = new File(getDataFolder(), "stats.txt");
+		long period = minutes * 60 * 20;
 
-					// Save the file
-					saveCustomYml(recipeConfig, recipeFile);
+		// the report is built on the main thread where the stats are recorded
+		statsDump = Bukkit.getScheduler().runTaskTimer(this, () -> {
+			ArrayList<String> lines = new ArrayList<>();
+			for (String line : craftingStats.getReport())
+				lines.add(ChatColor.stripColor(ChatColor.translateAlternateColorCodes('&', line)));
+
+			Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+				try {
+					Files.write(statsFile.toPath(), lines, StandardCharsets.UTF_8);
+				} catch (IOException e) {
+					getLogger().log(Level.WARNING, "Could not write stats.txt: " + e.getMessage());
 				}
-			}
-		}
+			});
+		}, period, period);
+	}
+
+	void stopStatsDump() {
+		if (statsDump == null)
+			return;
+
+		statsDump.cancel();
+		statsDump = null;
 	}
 
 	public void initCustomYml() {
-		customConfig = YamlConfiguration.loadConfiguration(customYml);
+		customConfig = configWriter.load(customYml);
 	}
 
 	private static Main instance;
@@ -208,6 +246,7 @@ public class Main extends JavaPlugin implements Listener {
 	public void onEnable() {
 
 		instance = this;
+		capabilities = ServerCapabilities.parse(Bukkit.getServer().getBukkitVersion());
 		recipeUtil = new RecipeUtil();
 		plugin = new RecipeManager();
 		guiUtil = new InventoryManager();
@@ -267,7 +306,10 @@ public class Main extends JavaPlugin implements Listener {
 		registerUpdateChecker();
 		registerBstats();
 		removeRecipes();
+		disableRecipes();
 		plugin.addRecipes();
+		startRecipeWatcher();
+		startStatsDump();
 
 		CraftManager craftManager = new CraftManager();
 		Bukkit.getPluginManager().registerEvents(new EditGUI(this, null), this);
@@ -296,7 +338,6 @@ public class Main extends JavaPlugin implements Listener {
 		recipeBook.clear();
 		vanillaRecipes.clear();
 		saveInventory.clear();
-		giveRecipe.clear();
 		recipe.clear();
 		addRecipe.clear();
 		disabledrecipe.clear();
@@ -306,7 +347,12 @@ public class Main extends JavaPlugin implements Listener {
 
 	@Override
 	public void onDisable() {
+		stopRecipeWatcher();
+		stopStatsDump();
+		RecipeSaver.shutdown();
+		configWriter.shutdown();
 		clear();
+		giveRecipe.clear();
 	}
 
 	public void reload() {
@@ -320,6 +366,9 @@ public class Main extends JavaPlugin implements Listener {
 
 		plugin.addRecipes();
 		removeRecipes();
+		disableRecipes();
+		startRecipeWatcher();
+		startStatsDump();
 
 		recipes = new RecipesGUI(this);
 		editItem = new EditGUI(Main.getInstance(), null);
@@ -359,16 +408,21 @@ public class Main extends JavaPlugin implements Listener {
 	}
 
 	public void disableRecipes() {
+		disabledrecipe.clear();
+		blacklist = Blacklist.compile(customConfig);
+
 		if (customConfig == null)
 			return;
 
-		for (String vanilla : customConfig.getConfigurationSection("vanilla-recipes").getKeys(false)) {
-			disabledrecipe.add(vanilla);
-		}
+		if (customConfig.isConfigurationSection("vanilla-recipes"))
+			for (String vanilla : customConfig.getConfigurationSection("vanilla-recipes").getKeys(false)) {
+				disabledrecipe.add(vanilla);
+			}
 
-		for (String custom : customConfig.getConfigurationSection("custom-recipes").getKeys(false)) {
-			disabledrecipe.add(custom);
-		}
+		if (customConfig.isConfigurationSection("custom-recipes"))
+			for (String custom : customConfig.getConfigurationSection("custom-recipes").getKeys(false)) {
+				disabledrecipe.add(custom);
+			}
 	}
 
 	public void sendMessages(Player p, String s) {
@@ -439,34 +493,19 @@ public class Main extends JavaPlugin implements Listener {
 		}
 	}
 
-	private int[] getServerVersionParts() {
-		String version = Bukkit.getServer().getBukkitVersion();
-		// Example version: 1.14-R0.1-SNAPSHOT
-		int version_minor = -1;
-		int version_major = -1;
-
-		// Split by "-" to get the version part before the hyphen
-		String[] parts = version.split("-");
-		if (parts.length > 0) {
-			String[] version_parts = parts[0].split("\\."); // Split by dot to separate major and minor versions
-			try {
-				version_major = Integer.parseInt(version_parts[0]);
-				version_minor = Integer.parseInt(version_parts[1]);
-			} catch (NumberFormatException e) {
-				Main.getInstance().getLogger().log(Level.WARNING, "Error parsing server version numbers: " + version);
-			}
-		}
-
-		return new int[] { version_major, version_minor };
+	/**
+	 * Getter for the features of the server version, resolved on the first call
+	 * 
+	 * @returns the server capabilities
+	 */
+	public ServerCapabilities getCapabilities() {
+		if (capabilities == null)
+			capabilities = ServerCapabilities.parse(Bukkit.getServer().getBukkitVersion());
+		return capabilities;
 	}
 
 	public boolean serverVersionAtLeast(int major, int minor) {
-		int[] server_version = getServerVersionParts();
-
-		if (server_version[0] >= major && server_version[1] >= minor) {
-			return true;
-		}
-		return false;
+		return getCapabilities().atLeast(major, minor);
 	}
 
 	public void debug(String st) {
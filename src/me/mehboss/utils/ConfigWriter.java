@@ -0,0 +1,147 @@
+package me.mehboss.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Writes configuration files behind the main thread. Saves made during a tick
+ * are collected and written once on the next tick, and a file is only written
+ * if its contents differ from what was last loaded or written.
+ */
+public class ConfigWriter {
+
+	private final Plugin plugin;
+
+	// the contents of each file as they were last loaded or written, a failed
+	// write is not recorded so the next save tries again
+	private final ConcurrentHashMap<File, String> written = new ConcurrentHashMap<>();
+	private final LinkedHashMap<File, FileConfiguration> dirty = new LinkedHashMap<>();
+	private ExecutorService writer = null;
+	private BukkitTask flushTask = null;
+
+	public ConfigWriter(Plugin plugin) {
+		this.plugin = plugin;
+	}
+
+	/**
+	 * Loads a configuration file and remembers its contents, so saving it without
+	 * changes does not write it
+	 *
+	 * @param file the yml file
+	 * @returns the loaded configuration, empty if the file does not exist
+	 */
+	public FileConfiguration load(File file) {
+		YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+		written.put(file, config.saveToString());
+		return config;
+	}
+
+	/**
+	 * Marks a configuration to be saved on the next tick
+	 *
+	 * @param config the configuration
+	 * @param file   the yml file to save it to
+	 */
+	public void save(FileConfiguration config, File file) {
+		dirty.put(file, config);
+
+		if (flushTask == null && plugin.isEnabled())
+			flushTask = Bukkit.getScheduler().runTask(plugin, this::flush);
+	}
+
+	/**
+	 * Hands every changed configuration to the writer thread. The contents are
+	 * serialized here, configurations are not safe to read off the main thread.
+	 */
+	public void flush() {
+		if (flushTask != null) {
+			flushTask.cancel();
+			flushTask = null;
+		}
+
+		for (Map.Entry<File, FileConfiguration> entry : dirty.entrySet()) {
+			File file = entry.getKey();
+			String contents = entry.getValue().saveToString();
+
+			if (contents.equals(written.get(file)))
+				continue;
+
+			getWriter().execute(() -> write(file, contents));
+		}
+		dirty.clear();
+	}
+
+	/**
+	 * Writes the pending changes and waits for them, used when the plugin
+	 * disables
+	 */
+	public void shutdown() {
+		flush();
+
+		if (writer == null)
+			return;
+
+		writer.shutdown();
+		try {
+			if (!writer.awaitTermination(10, TimeUnit.SECONDS))
+				plugin.getLogger().log(Level.WARNING, "Timed out while saving the configuration files!");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		writer = null;
+	}
+
+	/**
+	 * Writes a file through a temporary file, so it is never left half written
+	 *
+	 * @param file     the yml file
+	 * @param contents the serialized configuration
+	 */
+	private void write(File file, String contents) {
+		try {
+			File folder = file.getAbsoluteFile().getParentFile();
+			folder.mkdirs();
+
+			File tempFile = new File(folder, file.getName() + ".tmp");
+			Files.write(tempFile.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+
+			try {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			written.put(file, contents);
+		} catch (IOException e) {
+			plugin.getLogger().log(Level.WARNING, "Could not save " + file.getName() + ": " + e.getMessage());
+		}
+	}
+
+	private synchronized ExecutorService getWriter() {
+		if (writer == null) {
+			writer = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "CustomRecipes-ConfigWriter");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return writer;
+	}
+}
@@ -0,0 +1,175 @@
+package me.mehboss.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import me.mehboss.utils.RecipeUtil.Recipe;
+
+/**
+ * Latency histograms and counters for the crafting listeners, shown by
+ * /crecipe stats. Everything is recorded on the main thread, so the counters
+ * are plain fields and recording costs two nanoTime calls per event.
+ */
+public class CraftingStats {
+
+	public static final String CRAFTING = "handleCrafting";
+	public static final String SHIFT_CLICKS = "handleShiftClicks";
+	public static final String EFFECTS = "oneffect";
+	public static final String PLACE = "onPlace";
+
+	// recipes listed in the report, sorted by total time spent on them
+	private static final int TOP_RECIPES = 5;
+
+	private final LinkedHashMap<String, Histogram> sections = new LinkedHashMap<>();
+	private final HashMap<String, Histogram> recipes = new HashMap<>();
+
+	private long since = System.currentTimeMillis();
+	private long lookups = 0;
+	private long candidates = 0;
+	private int maxCandidates = 0;
+	private long cacheHits = 0;
+
+	public CraftingStats() {
+		reset();
+	}
+
+	/**
+	 * Records how long a listener took
+	 *
+	 * @param section one of CRAFTING, SHIFT_CLICKS, EFFECTS or PLACE
+	 * @param start   the System.nanoTime() from when the listener started
+	 * @param recipe  the recipe that was handled, can be null
+	 */
+	public void record(String section, long start, Recipe recipe) {
+		long nanos = System.nanoTime() - start;
+		sections.computeIfAbsent(section, s -> new Histogram()).record(nanos);
+
+		if (recipe != null)
+			recipes.computeIfAbsent(recipe.getName(), s -> new Histogram()).record(nanos);
+	}
+
+	/**
+	 * Records one recipe lookup for a crafting grid
+	 *
+	 * @param candidateCount the amount of candidate recipes for the grid
+	 * @param cacheHit       true if the match cache already knew the grid
+	 */
+	public void recordLookup(int candidateCount, boolean cacheHit) {
+		lookups++;
+		if (cacheHit) {
+			cacheHits++;
+			return;
+		}
+
+		candidates += candidateCount;
+		maxCandidates = Math.max(maxCandidates, candidateCount);
+	}
+
+	/**
+	 * Forgets everything recorded so far
+	 */
+	public void reset() {
+		sections.clear();
+		recipes.clear();
+		sections.put(CRAFTING, new Histogram());
+		sections.put(SHIFT_CLICKS, new Histogram());
+		sections.put(EFFECTS, new Histogram());
+		sections.put(PLACE, new Histogram());
+
+		since = System.currentTimeMillis();
+		lookups = 0;
+		candidates = 0;
+		maxCandidates = 0;
+		cacheHits = 0;
+	}
+
+	/**
+	 * Getter for the report shown by /crecipe stats
+	 *
+	 * @returns the report lines, with & color codes
+	 */
+	public List<String> getReport() {
+		List<String> lines = new ArrayList<>();
+		long seconds = (System.currentTimeMillis() - since) / 1000;
+
+		lines.add("&aCRAFTING STATS &f(last " + (seconds / 60) + "m " + (seconds % 60) + "s)");
+		for (Map.Entry<String, Histogram> section : sections.entrySet())
+			lines.add("&c" + section.getKey() + " &8-&f " + section.getValue().describe());
+
+		long misses = lookups - cacheHits;
+		lines.add("&cCandidates &8-&f " + format(misses == 0 ? 0 : (double) candidates / misses) + " avg, "
+				+ maxCandidates + " max per evaluated grid");
+		lines.add("&cMatch cache &8-&f " + format(lookups == 0 ? 0 : cacheHits * 100.0 / lookups) + "% hits ("
+				+ cacheHits + "/" + lookups + " lookups)");
+
+		if (recipes.isEmpty())
+			return lines;
+
+		List<Map.Entry<String, Histogram>> slowest = new ArrayList<>(recipes.entrySet());
+		slowest.sort((a, b) -> Long.compare(b.getValue().total, a.getValue().total));
+
+		lines.add("&cSlowest recipes:");
+		for (Map.Entry<String, Histogram> recipe : slowest.subList(0, Math.min(TOP_RECIPES, slowest.size())))
+			lines.add(" &e" + recipe.getKey() + " &8-&f " + recipe.getValue().describe());
+		return lines;
+	}
+
+	private static String format(double value) {
+		return String.format("%.1f", value);
+	}
+
+	private static String formatNanos(long nanos) {
+		if (nanos < 1000L)
+			return nanos + "ns";
+		if (nanos < 1000000L)
+			return format(nanos / 1000.0) + "us";
+		return format(nanos / 1000000.0) + "ms";
+	}
+
+	/**
+	 * Latencies in power of two buckets: bucket 0 holds everything below 1us,
+	 * bucket i everything below 2^i us, the last bucket everything slower.
+	 */
+	static class Histogram {
+		private static final int BUCKETS = 24;
+
+		private final long[] buckets = new long[BUCKETS];
+		private long count = 0;
+		private long total = 0;
+		private long max = 0;
+
+		void record(long nanos) {
+			long micros = nanos / 1000L;
+			int bucket = micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+
+			buckets[Math.min(bucket, BUCKETS - 1)]++;
+			count++;
+			total += nanos;
+			max = Math.max(max, nanos);
+		}
+
+		// upper bound of the bucket the percentile falls in
+		long percentile(double percent) {
+			long rank = (long) Math.ceil(count * percent / 100.0);
+			long seen = 0;
+
+			for (int bucket = 0; bucket < BUCKETS - 1; bucket++) {
+				seen += buckets[bucket];
+				if (seen >= rank)
+					return (1L << bucket) * 1000L;
+			}
+			return max;
+		}
+
+		String describe() {
+			if (count == 0)
+				return "no calls";
+
+			return count + " calls, avg " + formatNanos(total / count) + ", p50 <" + formatNanos(percentile(50))
+					+ ", p99 <" + formatNanos(percentile(99)) + ", max " + formatNanos(max);
+		}
+	}
+}
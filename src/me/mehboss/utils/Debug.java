@@ -0,0 +1,117 @@
+package me.mehboss.utils;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.entity.Player;
+
+import me.mehboss.recipe.Main;
+import me.mehboss.utils.RecipeUtil.Recipe;
+
+/**
+ * Debug output for the crafting listeners. Messages are passed as suppliers so
+ * nothing is concatenated while debug mode is off. A trace can narrow the
+ * output down to one player and/or one recipe, messages outside of the trace
+ * are dropped before they are built.
+ */
+public final class Debug {
+
+	private static volatile UUID tracePlayer = null;
+	private static volatile String traceRecipe = null;
+
+	private Debug() {
+	}
+
+	/**
+	 * Getter for checking if debug mode is on
+	 *
+	 * @returns true if Debug is enabled in the config, false otherwise
+	 */
+	public static boolean isEnabled() {
+		Main main = Main.getInstance();
+		return main != null && main.debug;
+	}
+
+	/**
+	 * Getter for checking if a trace narrows down the debug output
+	 *
+	 * @returns true if a player or recipe is being traced, false otherwise
+	 */
+	public static boolean isTracing() {
+		return tracePlayer != null || traceRecipe != null;
+	}
+
+	/**
+	 * Getter for checking if a message about a player and recipe would be logged
+	 *
+	 * @param player the player crafting, can be null if unknown
+	 * @param recipe the recipe involved, can be null if unknown
+	 * @returns true if debug mode is on and the message is part of the trace
+	 */
+	public static boolean isEnabled(Player player, Recipe recipe) {
+		if (!isEnabled())
+			return false;
+
+		UUID playerFilter = tracePlayer;
+		if (playerFilter != null && (player == null || !playerFilter.equals(player.getUniqueId())))
+			return false;
+
+		String recipeFilter = traceRecipe;
+		return recipeFilter == null || (recipe != null && recipeFilter.equalsIgnoreCase(recipe.getName()));
+	}
+
+	/**
+	 * Logs a message that is not about a specific player or recipe. Dropped while
+	 * a trace is active.
+	 *
+	 * @param message the message, only built when it is logged
+	 */
+	public static void log(Supplier<String> message) {
+		if (isEnabled(null, null))
+			write(message.get());
+	}
+
+	/**
+	 * Logs a message about a player and/or recipe
+	 *
+	 * @param player  the player crafting, can be null if unknown
+	 * @param recipe  the recipe involved, can be null if unknown
+	 * @param message the message, only built when it is logged
+	 */
+	public static void log(Player player, Recipe recipe, Supplier<String> message) {
+		if (isEnabled(player, recipe))
+			write(message.get());
+	}
+
+	/**
+	 * Only logs messages about the given player from now on
+	 *
+	 * @param player the player to trace, null to stop tracing players
+	 */
+	public static void tracePlayer(Player player) {
+		tracePlayer = player == null ? null : player.getUniqueId();
+	}
+
+	/**
+	 * Only logs messages about the given recipe from now on
+	 *
+	 * @param recipeName the recipe to trace, null to stop tracing recipes
+	 */
+	public static void traceRecipe(String recipeName) {
+		traceRecipe = recipeName;
+	}
+
+	/**
+	 * Stops tracing, every debug message is logged again
+	 */
+	public static void clearTrace() {
+		tracePlayer = null;
+		traceRecipe = null;
+	}
+
+	private static void write(String st) {
+		Logger.getLogger("Minecraft").log(Level.WARNING, "[DEBUG][" + Main.getInstance().getName() + "]" + st);
+	}
+}
@@ -0,0 +1,235 @@
+package me.mehboss.utils;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import io.github.bananapuncher714.nbteditor.NBTEditor;
+import me.mehboss.recipe.Main;
+
+/**
+ * The properties the recipe matchers look at, read once per crafting slot.
+ * Built once per event so the identifier NBT of a slot is reflected at most
+ * once, no matter how many recipes or ingredients are compared against it.
+ */
+public final class GridSnapshot {
+
+	public static final int EMPTY = -1;
+
+	private final ItemStack[] items;
+	private final int[] materials;
+	private final int[] amounts;
+	private final int[] modelData;
+	private final String[] identifiers;
+	private final String[] displayNames;
+
+	// bounding box of the non-empty slots
+	private final int width;
+	private int minRow = 0;
+	private int minCol = 0;
+	private int shapeWidth = 0;
+	private int shapeHeight = 0;
+
+	private int nbtReads = 0;
+	private int identifierLookups = 0;
+
+	public GridSnapshot(ItemStack[] matrix) {
+		boolean hasModelData = Main.getInstance().getCapabilities().hasCustomModelData();
+
+		items = matrix;
+		width = matrix.length == 4 ? 2 : 3;
+		materials = new int[matrix.length];
+		amounts = new int[matrix.length];
+		modelData = new int[matrix.length];
+		identifiers = new String[matrix.length];
+		displayNames = new String[matrix.length];
+
+		for (int slot = 0; slot < matrix.length; slot++) {
+			ItemStack item = matrix[slot];
+			modelData[slot] = RecipeMatcher.NO_MODEL_DATA;
+
+			if (item == null || item.getType() == Material.AIR) {
+				materials[slot] = EMPTY;
+				continue;
+			}
+
+			materials[slot] = item.getType().ordinal();
+			amounts[slot] = item.getAmount();
+
+			// items without meta can not carry a name, model data or identifier
+			if (!item.hasItemMeta())
+				continue;
+
+			ItemMeta meta = item.getItemMeta();
+			if (hasModelData && meta.hasCustomModelData())
+				modelData[slot] = meta.getCustomModelData();
+			if (meta.hasDisplayName())
+				displayNames[slot] = meta.getDisplayName();
+
+			nbtReads++;
+			if (NBTEditor.contains(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER")) {
+				nbtReads++;
+				identifiers[slot] = NBTEditor.getString(item, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER");
+			}
+		}
+		trim();
+	}
+
+	private void trim() {
+		int maxRow = -1, maxCol = -1;
+		minRow = width;
+		minCol = width;
+
+		for (int slot = 0; slot < materials.length; slot++) {
+			if (materials[slot] == EMPTY)
+				continue;
+
+			minRow = Math.min(minRow, slot / width);
+			maxRow = Math.max(maxRow, slot / width);
+			minCol = Math.min(minCol, slot % width);
+			maxCol = Math.max(maxCol, slot % width);
+		}
+
+		shapeWidth = Math.max(0, maxCol - minCol + 1);
+		shapeHeight = Math.max(0, maxRow - minRow + 1);
+	}
+
+	/**
+	 * Getter for the amount of slots in the grid
+	 *
+	 * @returns 4 for the inventory grid, 9 for a crafting table
+	 */
+	public int size() {
+		return items.length;
+	}
+
+	/**
+	 * Getter for the width of the smallest box around the items in the grid
+	 *
+	 * @returns the amount of columns that hold items
+	 */
+	public int getShapeWidth() {
+		return shapeWidth;
+	}
+
+	/**
+	 * Getter for the height of the smallest box around the items in the grid
+	 *
+	 * @returns the amount of rows that hold items
+	 */
+	public int getShapeHeight() {
+		return shapeHeight;
+	}
+
+	/**
+	 * Getter for the slot of a position in the trimmed box
+	 *
+	 * @param row the row in the box, from 0
+	 * @param col the column in the box, from 0
+	 * @returns the matrix index of the position
+	 */
+	public int getShapeSlot(int row, int col) {
+		return (minRow + row) * width + minCol + col;
+	}
+
+	/**
+	 * Getter for the item in a slot, as it was when the snapshot was taken
+	 *
+	 * @param slot the matrix index (0-8)
+	 * @returns the ItemStack, can be null
+	 */
+	public ItemStack getItem(int slot) {
+		return items[slot];
+	}
+
+	/**
+	 * Getter for checking if a slot is empty
+	 *
+	 * @param slot the matrix index (0-8)
+	 * @returns true if the slot is null or air, false otherwise
+	 */
+	public boolean isEmpty(int slot) {
+		return materials[slot] == EMPTY;
+	}
+
+	/**
+	 * Getter for the material of a slot
+	 *
+	 * @param slot the matrix index (0-8)
+	 * @returns the material ordinal, EMPTY if the slot is empty
+	 */
+	public int getMaterial(int slot) {
+		return materials[slot];
+	}
+
+	/**
+	 * Getter for the stack size of a slot
+	 *
+	 * @param slot the matrix index (0-8)
+	 * @returns the amount, 0 if the slot is empty
+	 */
+	public int getAmount(int slot) {
+		return amounts[slot];
+	}
+
+	/**
+	 * Getter for the custom model data of a slot
+	 *
+	 * @param slot the matrix index (0-8)
+	 * @returns the model data, RecipeMatcher.NO_MODEL_DATA if there is none
+	 */
+	public int getModelData(int slot) {
+		return modelData[slot];
+	}
+
+	/**
+	 * Getter for the CUSTOM_ITEM_IDENTIFIER of a slot
+	 *
+	 * @param slot the matrix index (0-8)
+	 * @returns the identifier, null if the item is not tagged
+	 */
+	public String getIdentifier(int slot) {
+		identifierLookups++;
+		return identifiers[slot];
+	}
+
+	/**
+	 * Getter for the CUSTOM_ITEM_IDENTIFIER of a slot without counting it as a
+	 * lookup, for building cache keys
+	 *
+	 * @param slot the matrix index (0-8)
+	 * @returns the identifier, null if the item is not tagged
+	 */
+	public String peekIdentifier(int slot) {
+		return identifiers[slot];
+	}
+
+	/**
+	 * Getter for the displayname of a slot
+	 *
+	 * @param slot the matrix index (0-8)
+	 * @returns the displayname, null if the item has none
+	 */
+	public String getDisplayName(int slot) {
+		return displayNames[slot];
+	}
+
+	/**
+	 * Getter for the NBT reads this snapshot performed
+	 *
+	 * @returns the amount of NBTEditor calls made while reading the grid
+	 */
+	public int getNbtReads() {
+		return nbtReads;
+	}
+
+	/**
+	 * Getter for how often the identifiers of this snapshot were looked up. Each
+	 * lookup used to be a contains and a getString on the item NBT.
+	 *
+	 * @returns the amount of identifier lookups
+	 */
+	public int getIdentifierLookups() {
+		return identifierLookups;
+	}
+}
@@ -0,0 +1,345 @@
+package me.mehboss.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import me.mehboss.recipe.Main;
+import me.mehboss.utils.RecipeUtil.Ingredient;
+import me.mehboss.utils.RecipeUtil.Recipe;
+import me.mehboss.utils.RecipeUtil.Recipe.RecipeType;
+
+/**
+ * Frozen form of a crafting recipe's ingredients. It is compiled once when the
+ * recipe is created so that crafting events only compare primitives and
+ * strings instead of rebuilding lists from the Ingredient objects.
+ */
+public final class RecipeMatcher {
+
+	public static final int NO_MODEL_DATA = Integer.MIN_VALUE;
+	private static final int EMPTY = GridSnapshot.EMPTY;
+
+	private final boolean shapeless;
+	private final boolean ignoreData;
+	private final boolean ignoreModelData;
+
+	// shaped: one entry per grid position, shapeless: one entry per ingredient
+	private final int[] materials;
+	private final int[] amounts;
+	private final String[] identifiers;
+	private final String[] displayNames;
+	private final int[] modelData;
+	// position of each entry in Recipe.getIngredients()
+	private final int[] ingredientIndex;
+
+	// shaped only: the bounding box of the non-empty positions, row by row, and
+	// the same box flipped horizontally
+	private int shapeWidth;
+	private int shapeHeight;
+	private int[] shape;
+	private int[] mirrored;
+
+	// shapeless only: the ingredient materials in ascending order
+	private int[] sortedMaterials;
+
+	private RecipeMatcher(boolean shapeless, boolean ignoreData, boolean ignoreModelData, int size) {
+		this.shapeless = shapeless;
+		this.ignoreData = ignoreData;
+		this.ignoreModelData = ignoreModelData;
+		this.materials = new int[size];
+		this.amounts = new int[size];
+		this.identifiers = new String[size];
+		this.displayNames = new String[size];
+		this.modelData = new int[size];
+		this.ingredientIndex = new int[size];
+	}
+
+	/**
+	 * Compiles the ingredients of a shaped or shapeless recipe
+	 *
+	 * @param recipe     the recipe to compile
+	 * @param recipeUtil the registry used to resolve ingredient identifiers
+	 * @returns the compiled matcher, null if the recipe is not a crafting recipe
+	 */
+	static RecipeMatcher compile(Recipe recipe, RecipeUtil recipeUtil) {
+		if (recipe.getType() != RecipeType.SHAPED && recipe.getType() != RecipeType.SHAPELESS)
+			return null;
+
+		boolean shapeless = recipe.getType() == RecipeType.SHAPELESS;
+		ArrayList<Ingredient> ingredients = new ArrayList<>();
+		ArrayList<Integer> positions = new ArrayList<>();
+
+		for (int i = 0; i < recipe.getIngredients().size(); i++) {
+			Ingredient ingredient = recipe.getIngredients().get(i);
+			if (shapeless && ingredient.isEmpty())
+				continue;
+			ingredients.add(ingredient);
+			positions.add(i);
+		}
+
+		RecipeMatcher matcher = new RecipeMatcher(shapeless, recipe.getIgnoreData(), recipe.getIgnoreModelData(),
+				ingredients.size());
+
+		for (int i = 0; i < ingredients.size(); i++) {
+			Ingredient ingredient = ingredients.get(i);
+
+			matcher.ingredientIndex[i] = positions.get(i);
+			matcher.materials[i] = ingredient.isEmpty() ? EMPTY : ingredient.getMaterial().ordinal();
+			matcher.amounts[i] = ingredient.getAmount();
+			matcher.identifiers[i] = ingredient.hasIdentifier() ? ingredient.getIdentifier() : null;
+			matcher.displayNames[i] = ingredient.hasDisplayName() ? ingredient.getDisplayName() : null;
+			matcher.modelData[i] = ingredient.hasIdentifier()
+					? resolveModelData(recipeUtil.getRecipeFromKey(ingredient.getIdentifier()))
+					: NO_MODEL_DATA;
+		}
+
+		if (!shapeless) {
+			matcher.trimShape();
+		} else {
+			matcher.sortedMaterials = matcher.materials.clone();
+			Arrays.sort(matcher.sortedMaterials);
+		}
+		return matcher;
+	}
+
+	// cuts the empty rows and columns off the 3x3 positions
+	private void trimShape() {
+		int minRow = 3, maxRow = -1, minCol = 3, maxCol = -1;
+
+		for (int position = 0; position < materials.length && position < 9; position++) {
+			if (materials[position] == EMPTY)
+				continue;
+
+			minRow = Math.min(minRow, position / 3);
+			maxRow = Math.max(maxRow, position / 3);
+			minCol = Math.min(minCol, position % 3);
+			maxCol = Math.max(maxCol, position % 3);
+		}
+
+		shapeWidth = Math.max(0, maxCol - minCol + 1);
+		shapeHeight = Math.max(0, maxRow - minRow + 1);
+		shape = new int[shapeWidth * shapeHeight];
+		mirrored = new int[shapeWidth * shapeHeight];
+
+		for (int row = 0; row < shapeHeight; row++) {
+			for (int col = 0; col < shapeWidth; col++) {
+				shape[row * shapeWidth + col] = (minRow + row) * 3 + minCol + col;
+				mirrored[row * shapeWidth + col] = (minRow + row) * 3 + minCol + (shapeWidth - 1 - col);
+			}
+		}
+	}
+
+	/**
+	 * Getter for the keys of the trimmed shape and its mirror, shaped only. The
+	 * keys only depend on the materials, so they are the same as
+	 * shapeKey(matrix) of a grid that has the shape anywhere in it.
+	 *
+	 * @returns the shape keys, both are the same if the shape is symmetric
+	 */
+	long[] getShapeKeys() {
+		return new long[] { shapeKey(shapeWidth, shapeHeight, shape), shapeKey(shapeWidth, shapeHeight, mirrored) };
+	}
+
+	private long shapeKey(int width, int height, int[] cells) {
+		long key = width * 4 + height;
+		for (int cell : cells)
+			key = mixShape(key, materials[cell]);
+		return key;
+	}
+
+	/**
+	 * Key of the trimmed shape of a crafting grid, which only looks at the
+	 * materials. A shaped recipe can only match the grid if one of its shape keys
+	 * is the same.
+	 *
+	 * @param matrix the crafting matrix (2x2 or 3x3)
+	 * @returns the shape key of the grid
+	 */
+	static long shapeKey(ItemStack[] matrix) {
+		int width = matrix.length == 4 ? 2 : 3;
+		int minRow = 3, maxRow = -1, minCol = 3, maxCol = -1;
+
+		for (int slot = 0; slot < matrix.length; slot++) {
+			if (matrix[slot] == null || matrix[slot].getType() == Material.AIR)
+				continue;
+
+			minRow = Math.min(minRow, slot / width);
+			maxRow = Math.max(maxRow, slot / width);
+			minCol = Math.min(minCol, slot % width);
+			maxCol = Math.max(maxCol, slot % width);
+		}
+
+		int shapeWidth = Math.max(0, maxCol - minCol + 1);
+		int shapeHeight = Math.max(0, maxRow - minRow + 1);
+		long key = shapeWidth * 4 + shapeHeight;
+
+		for (int row = 0; row < shapeHeight; row++) {
+			for (int col = 0; col < shapeWidth; col++) {
+				ItemStack item = matrix[(minRow + row) * width + minCol + col];
+				key = mixShape(key, item == null || item.getType() == Material.AIR ? EMPTY : item.getType().ordinal());
+			}
+		}
+		return key;
+	}
+
+	private static long mixShape(long key, int material) {
+		long h = (key ^ (material + 2)) * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 32);
+	}
+
+	private static int resolveModelData(Recipe exactMatch) {
+		if (exactMatch == null || !Main.getInstance().getCapabilities().hasCustomModelData())
+			return NO_MODEL_DATA;
+
+		ItemStack result = exactMatch.getResult();
+		if (!result.hasItemMeta() || !result.getItemMeta().hasCustomModelData())
+			return NO_MODEL_DATA;
+
+		return result.getItemMeta().getCustomModelData();
+	}
+
+	/**
+	 * Getter for whether the matcher ignores the grid positions
+	 *
+	 * @returns true if the recipe is shapeless, false otherwise
+	 */
+	public boolean isShapeless() {
+		return shapeless;
+	}
+
+	/**
+	 * Checks a crafting grid against the compiled ingredients, including
+	 * identifiers, displaynames, model data and amounts. Shaped recipes match
+	 * anywhere in the grid and mirrored, like vanilla recipes.
+	 *
+	 * @param grid the snapshot of the crafting matrix (2x2 or 3x3)
+	 * @returns true if the grid satisfies the recipe, false otherwise
+	 */
+	public boolean matches(GridSnapshot grid) {
+		return getPlacement(grid) != null;
+	}
+
+	/**
+	 * Getter for which ingredient every slot of the grid was matched with
+	 *
+	 * @param grid the snapshot of the crafting matrix (2x2 or 3x3)
+	 * @returns one entry per grid slot with the index in Recipe.getIngredients(),
+	 *          -1 for empty slots, null if the grid does not satisfy the recipe
+	 */
+	public int[] getPlacement(GridSnapshot grid) {
+		int[] placement = new int[grid.size()];
+		Arrays.fill(placement, -1);
+
+		if (shapeless)
+			return placeShapeless(grid, placement) ? placement : null;
+
+		if (grid.getShapeWidth() != shapeWidth || grid.getShapeHeight() != shapeHeight)
+			return null;
+
+		if (placeShaped(grid, shape, placement) || placeShaped(grid, mirrored, placement))
+			return placement;
+		return null;
+	}
+
+	private boolean placeShaped(GridSnapshot grid, int[] cells, int[] placement) {
+		for (int row = 0; row < shapeHeight; row++) {
+			for (int col = 0; col < shapeWidth; col++) {
+				int i = cells[row * shapeWidth + col];
+				int slot = grid.getShapeSlot(row, col);
+
+				if (!slotMatches(i, grid, slot))
+					return false;
+				if (materials[i] != EMPTY)
+					placement[slot] = ingredientIndex[i];
+			}
+		}
+		return true;
+	}
+
+	private boolean placeShapeless(GridSnapshot grid, int[] placement) {
+		int[] slots = new int[grid.size()];
+		int[] gridMaterials = new int[grid.size()];
+		int count = 0;
+
+		for (int slot = 0; slot < grid.size(); slot++) {
+			if (grid.isEmpty(slot))
+				continue;
+
+			slots[count] = slot;
+			gridMaterials[count++] = grid.getMaterial(slot);
+		}
+
+		// the materials have to be the exact same multiset before any item is looked at
+		if (count != sortedMaterials.length)
+			return false;
+
+		gridMaterials = Arrays.copyOf(gridMaterials, count);
+		Arrays.sort(gridMaterials);
+		if (!Arrays.equals(gridMaterials, sortedMaterials))
+			return false;
+
+		// which of the occupied slots every ingredient accepts
+		int[] accepts = new int[count];
+		for (int i = 0; i < count; i++) {
+			for (int j = 0; j < count; j++) {
+				if (slotMatches(i, grid, slots[j]))
+					accepts[i] |= 1 << j;
+			}
+			if (accepts[i] == 0)
+				return false;
+		}
+
+		// every ingredient needs its own slot, an ingredient that accepts more
+		// slots gives its slot up when another one has no other choice
+		int[] owner = new int[count];
+		Arrays.fill(owner, -1);
+
+		for (int i = 0; i < count; i++) {
+			if (!assign(i, accepts, owner, new boolean[count]))
+				return false;
+		}
+
+		for (int j = 0; j < count; j++)
+			placement[slots[j]] = ingredientIndex[owner[j]];
+		return true;
+	}
+
+	private boolean assign(int i, int[] accepts, int[] owner, boolean[] visited) {
+		for (int j = 0; j < owner.length; j++) {
+			if ((accepts[i] & (1 << j)) == 0 || visited[j])
+				continue;
+
+			visited[j] = true;
+			if (owner[j] == -1 || assign(owner[j], accepts, owner, visited)) {
+				owner[j] = i;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean slotMatches(int i, GridSnapshot grid, int slot) {
+		if (grid.isEmpty(slot))
+			return materials[i] == EMPTY;
+
+		if (materials[i] != grid.getMaterial(slot) || grid.getAmount(slot) < amounts[i])
+			return false;
+
+		if (ignoreData)
+			return true;
+
+		if (!ignoreModelData && modelData[i] != NO_MODEL_DATA && grid.getModelData(slot) != modelData[i])
+			return false;
+
+		if (identifiers[i] != null)
+			return identifiers[i].equals(grid.getIdentifier(slot));
+
+		String displayName = grid.getDisplayName(slot);
+		if (displayNames[i] == null)
+			return displayName == null;
+
+		return displayNames[i].equals(displayName);
+	}
+}
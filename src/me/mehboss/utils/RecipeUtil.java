@@ -1,20 +1,37 @@
 package me.mehboss.utils;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionEffect;
 
 import io.github.bananapuncher714.nbteditor.NBTEditor;
 import me.mehboss.recipe.Main;
 
 public class RecipeUtil {
 	private HashMap<String, Recipe> recipes = new HashMap<>();
-	private ArrayList<String> keyList = new ArrayList<>();
+	private HashMap<String, Recipe> keyIndex = new HashMap<>();
+	// keyed by a frozen copy of each result, so later changes to a result can not break the lookup
+	private HashMap<ItemStack, ArrayList<Recipe>> resultIndex = new HashMap<>();
+	private HashMap<String, ItemStack> resultKeys = new HashMap<>();
+	private LinkedHashSet<String> keyList = new LinkedHashSet<>();
+	private HashMap<Long, ArrayList<Recipe>> craftingIndex = new HashMap<>();
+	private HashMap<Long, ArrayList<Recipe>> shapedIndex = new HashMap<>();
+	private HashMap<String, HashSet<String>> dependents = new HashMap<>();
+	private int[] ingredientUses = new int[Material.values().length];
+	private BitSet ingredientMaterials = new BitSet(ingredientUses.length);
+	private int version = 0;
 
 	/**
 	 * Adds a finished Recipe object to the API
@@ -63,8 +80,20 @@ public class RecipeUtil {
 			throw new InvalidRecipeException(errorMessage);
 		}
 
-		recipes.put(recipe.getName(), recipe);
+		Recipe replaced = recipes.put(recipe.getName(), recipe);
+		if (replaced != null)
+			unindexRecipe(replaced);
+
+		keyIndex.put(recipe.getKey(), recipe);
+		ItemStack resultKey = recipe.getResultTemplate().getBase();
+		resultKeys.put(recipe.getName(), resultKey);
+		resultIndex.computeIfAbsent(resultKey, k -> new ArrayList<>()).add(recipe);
+
+		recipe.matcher = RecipeMatcher.compile(recipe, this);
+		indexRecipe(recipe);
 		keyList.add(recipe.getKey());
+		recompileDependents(recipe.getKey());
+		version++;
 	}
 
 	/**
@@ -73,23 +102,220 @@ public class RecipeUtil {
 	 * @param recipeName the string name of the recipe you wanting to remove.
 	 */
 	public void removeRecipe(String recipeName) {
-		recipes.remove(recipeName);
+		Recipe removed = recipes.remove(recipeName);
+		if (removed == null)
+			return;
+
+		unindexRecipe(removed);
+		recompileDependents(removed.getKey());
+		version++;
+	}
+
+	/**
+	 * Getter for the registry version, which changes every time a recipe is
+	 * created or removed. Used to invalidate anything derived from the recipes.
+	 * 
+	 * @returns the current registry version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Getter for the crafting recipes that could match a crafting grid. Shapeless
+	 * recipes are looked up by the multiset of the grid materials and shaped
+	 * recipes by the trimmed shape of the grid, the full ingredient checks still
+	 * need to be ran on each one.
+	 * 
+	 * @param matrix the crafting matrix (2x2 or 3x3)
+	 * @return a list of candidate recipes, empty if none could match
+	 */
+	public List<Recipe> getCandidates(ItemStack[] matrix) {
+		long key = 0;
+		for (ItemStack item : matrix) {
+			if (item == null || item.getType() == Material.AIR)
+				continue;
+			key += materialHash(item.getType());
+		}
+
+		ArrayList<Recipe> shapeless = craftingIndex.get(key);
+		ArrayList<Recipe> shaped = shapedIndex.get(RecipeMatcher.shapeKey(matrix));
+
+		if (shapeless == null)
+			return shaped == null ? Collections.emptyList() : shaped;
+		if (shaped == null)
+			return shapeless;
+
+		ArrayList<Recipe> candidates = new ArrayList<>(shaped);
+		candidates.addAll(shapeless);
+		return candidates;
+	}
+
+	/**
+	 * Getter for checking if a crafting grid only holds materials that custom
+	 * recipes use. A grid with any other material can not match a custom recipe,
+	 * which is the case for most vanilla crafts.
+	 * 
+	 * @param matrix the crafting matrix (2x2 or 3x3)
+	 * @return true if every item is a custom recipe ingredient, false otherwise
+	 */
+	public boolean canMatch(ItemStack[] matrix) {
+		for (ItemStack item : matrix) {
+			if (item == null || item.getType() == Material.AIR)
+				continue;
+			if (!ingredientMaterials.get(item.getType().ordinal()))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a crafting recipe to the candidate and identifier indexes, private
+	 * 
+	 * @param recipe the recipe to index
+	 */
+	private void indexRecipe(Recipe recipe) {
+		if (recipe.getType() != Recipe.RecipeType.SHAPED && recipe.getType() != Recipe.RecipeType.SHAPELESS)
+			return;
+
+		if (recipe.getType() == Recipe.RecipeType.SHAPED) {
+			for (long key : shapeKeys(recipe))
+				shapedIndex.computeIfAbsent(key, k -> new ArrayList<>()).add(recipe);
+		} else {
+			craftingIndex.computeIfAbsent(materialKey(recipe), k -> new ArrayList<>()).add(recipe);
+		}
+
+		for (Ingredient ingredient : recipe.getIngredients()) {
+			if (!ingredient.isEmpty() && ingredientUses[ingredient.getMaterial().ordinal()]++ == 0)
+				ingredientMaterials.set(ingredient.getMaterial().ordinal());
+
+			if (ingredient.hasIdentifier())
+				dependents.computeIfAbsent(ingredient.getIdentifier(), k -> new HashSet<>()).add(recipe.getName());
+		}
+	}
+
+	/**
+	 * Removes a recipe from the key, result and candidate indexes, private
+	 * 
+	 * @param recipe the recipe to remove
+	 */
+	private void unindexRecipe(Recipe recipe) {
+		keyIndex.remove(recipe.getKey(), recipe);
+		if (!keyIndex.containsKey(recipe.getKey()))
+			keyList.remove(recipe.getKey());
+
+		// other recipes with the same result stay reachable
+		ItemStack resultKey = resultKeys.get(recipe.getName());
+		ArrayList<Recipe> sameResult = resultKey == null ? null : resultIndex.get(resultKey);
+		if (sameResult != null && sameResult.remove(recipe)) {
+			resultKeys.remove(recipe.getName());
+			if (sameResult.isEmpty())
+				resultIndex.remove(resultKey);
+		}
+
+		if (recipe.getType() != Recipe.RecipeType.SHAPED && recipe.getType() != Recipe.RecipeType.SHAPELESS)
+			return;
+
+		if (recipe.getType() == Recipe.RecipeType.SHAPED) {
+			for (long key : shapeKeys(recipe))
+				removeCandidate(shapedIndex, key, recipe);
+		} else {
+			removeCandidate(craftingIndex, materialKey(recipe), recipe);
+		}
+
+		for (Ingredient ingredient : recipe.getIngredients()) {
+			if (!ingredient.isEmpty() && --ingredientUses[ingredient.getMaterial().ordinal()] == 0)
+				ingredientMaterials.clear(ingredient.getMaterial().ordinal());
+
+			if (ingredient.hasIdentifier() && dependents.containsKey(ingredient.getIdentifier()))
+				dependents.get(ingredient.getIdentifier()).remove(recipe.getName());
+		}
+	}
+
+	private void removeCandidate(HashMap<Long, ArrayList<Recipe>> index, long key, Recipe recipe) {
+		ArrayList<Recipe> candidates = index.get(key);
+		if (candidates == null)
+			return;
+
+		candidates.remove(recipe);
+		if (candidates.isEmpty())
+			index.remove(key);
+	}
+
+	/**
+	 * Keys of the trimmed shape of a shaped recipe and its mirror, private
+	 * 
+	 * @param recipe the shaped recipe
+	 * @return the distinct shape keys
+	 */
+	private HashSet<Long> shapeKeys(Recipe recipe) {
+		HashSet<Long> keys = new HashSet<>();
+		if (recipe.getMatcher() == null)
+			return keys;
+
+		for (long key : recipe.getMatcher().getShapeKeys())
+			keys.add(key);
+		return keys;
+	}
+
+	/**
+	 * Recompiles the matchers of recipes that use the key as an ingredient
+	 * identifier, private. Keeps the model data of the referenced result current
+	 * when that recipe is added or removed after them.
+	 * 
+	 * @param key the key of the recipe that changed
+	 */
+	private void recompileDependents(String key) {
+		if (key == null || !dependents.containsKey(key))
+			return;
+
+		for (String name : dependents.get(key)) {
+			Recipe dependent = recipes.get(name);
+			if (dependent != null)
+				dependent.matcher = RecipeMatcher.compile(dependent, this);
+		}
+	}
+
+	/**
+	 * Order independent key of the ingredient materials of a recipe, private
+	 * 
+	 * @param recipe the recipe
+	 * @return the sum of the material hashes of every non-empty ingredient
+	 */
+	private long materialKey(Recipe recipe) {
+		long key = 0;
+		for (Ingredient ingredient : recipe.getIngredients()) {
+			if (ingredient.isEmpty())
+				continue;
+			key += materialHash(ingredient.getMaterial());
+		}
+		return key;
+	}
+
+	/**
+	 * Spreads a material over 64 bits so that summing them gives a multiset key,
+	 * private. Collisions only cost an extra candidate check.
+	 * 
+	 * @param material the material
+	 * @return the mixed hash of the material
+	 */
+	private static long materialHash(Material material) {
+		long h = (material.ordinal() + 1) * 0x9E3779B97F4A7C15L;
+		h ^= (h >>> 31);
+		h *= 0xBF58476D1CE4E5B9L;
+		return h ^ (h >>> 29);
 	}
 
 	/**
 	 * Getter for a recipe from the result ItemStack
 	 * 
 	 * @param item the ItemStack
-	 * @return the Recipe that is found, can be null
+	 * @return the Recipe that is found, the first registered one if several
+	 *         recipes have the same result, can be null
 	 */
 	public Recipe getRecipeFromResult(ItemStack item) {
-		for (Recipe recipe : recipes.values()) {
-			ItemStack result = recipe.getResult();
-
-			if (result.equals(item))
-				return recipe;
-		}
-		return null;
+		ArrayList<Recipe> sameResult = item == null ? null : resultIndex.get(item);
+		return sameResult == null ? null : sameResult.get(0);
 	}
 
 	/**
@@ -99,13 +325,7 @@ public class RecipeUtil {
 	 * @return the Recipe that is found, can be null
 	 */
 	public Recipe getRecipeFromKey(String key) {
-		for (Recipe recipe : recipes.values()) {
-			String recipeTag = recipe.getKey();
-
-			if (key.equals(recipeTag))
-				return recipe;
-		}
-		return null;
+		return key == null ? null : keyIndex.get(key);
 	}
 
 	/**
@@ -163,6 +383,33 @@ public class RecipeUtil {
 		Main.getInstance().plugin.addRecipesFromAPI(recipe);
 	}
 
+	/**
+	 * Loads the specified recipes to the server in one batch. Checks and corrects
+	 * duplicate NamespacedKey.
+	 * 
+	 * @param recipes the recipes you want to load
+	 */
+	public void addRecipes(Collection<Recipe> recipes) {
+		for (Recipe recipe : recipes)
+			this.clearDuplicates(recipe);
+
+		Main.getInstance().plugin.registerRecipes(recipes);
+	}
+
+	/**
+	 * Unloads the specified recipe from the server and removes it from CR.
+	 * 
+	 * @param recipeName the string name of the recipe you want to unload
+	 */
+	public void unloadRecipe(String recipeName) {
+		Recipe recipe = getRecipe(recipeName);
+		if (recipe == null)
+			return;
+
+		this.clearDuplicates(recipe);
+		removeRecipe(recipeName);
+	}
+
 	/**
 	 * Resets and reloads all registered recipes, including CR recipes. Checks and
 	 * corrects duplicate NamespacedKey.
@@ -179,7 +426,7 @@ public class RecipeUtil {
 	 * @param recipe removes the recipe(s) from the bukkit registry, can be null
 	 */
 	private void clearDuplicates(Recipe recipe) {
-		if (Main.getInstance().serverVersionAtLeast(1, 12)) {
+		if (Main.getInstance().getCapabilities().hasNamespacedKeys()) {
 
 			NamespacedKey customKey;
 
@@ -207,8 +454,11 @@ public class RecipeUtil {
 	public static class Recipe {
 
 		private ItemStack result;
+		private ResultTemplate resultTemplate;
+		private RecipeMatcher matcher;
 
 		private ArrayList<String> disabledWorlds = new ArrayList<>();
+		private ArrayList<PotionEffect> effects = new ArrayList<>();
 		private ArrayList<Ingredient> ingredients;
 
 		private String name;
@@ -375,6 +625,7 @@ public class RecipeUtil {
 			} else {
 				this.isTagged = tagged;
 				result = NBTEditor.set(result, key, NBTEditor.CUSTOM_DATA, "CUSTOM_ITEM_IDENTIFIER");
+				this.resultTemplate = null;
 			}
 		}
 
@@ -462,6 +713,7 @@ public class RecipeUtil {
 			}
 
 			this.result = result;
+			this.resultTemplate = null;
 		}
 
 		/**
@@ -473,6 +725,18 @@ public class RecipeUtil {
 			return result;
 		}
 
+		/**
+		 * Getter for the shared result that is handed out when crafting, created on
+		 * the first call
+		 * 
+		 * @returns the result template, null if no result has been set
+		 */
+		public ResultTemplate getResultTemplate() {
+			if (resultTemplate == null && result != null)
+				resultTemplate = new ResultTemplate(result);
+			return resultTemplate;
+		}
+
 		/**
 		 * Adds an Ingredient object to the recipe, required Requires 9 ingredients for
 		 * crafting, 1 otherwise
@@ -492,6 +756,16 @@ public class RecipeUtil {
 			return ingredients;
 		}
 
+		/**
+		 * Getter for the compiled ingredient matcher, set when the recipe is created
+		 * 
+		 * @returns the RecipeMatcher, null if the recipe is not a crafting recipe or
+		 *          has not been created yet
+		 */
+		public RecipeMatcher getMatcher() {
+			return matcher;
+		}
+
 		/**
 		 * Getter for the amount of ingredients the recipe has
 		 * 
@@ -584,6 +858,24 @@ public class RecipeUtil {
 			return disabledWorlds;
 		}
 
+		/**
+		 * Adds a potion effect that is applied to entities hit with the result
+		 * 
+		 * @param effect the PotionEffect to apply
+		 */
+		public void addEffect(PotionEffect effect) {
+			effects.add(effect);
+		}
+
+		/**
+		 * Getter for the potion effects applied to entities hit with the result
+		 * 
+		 * @returns an arraylist of PotionEffects, empty if there are none
+		 */
+		public ArrayList<PotionEffect> getEffects() {
+			return effects;
+		}
+
 		/**
 		 * Setter for whether a bucket is consumed or emptied
 		 * 
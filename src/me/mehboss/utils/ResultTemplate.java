@@ -0,0 +1,78 @@
+package me.mehboss.utils;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import me.clip.placeholderapi.PlaceholderAPI;
+
+/**
+ * The result of a recipe as it is handed out. The base stack is shared and
+ * never changed, inventories copy it when it is set. Only results with
+ * PlaceholderAPI placeholders in their lore need a copy per player, and only
+ * when they are actually crafted or given.
+ */
+public final class ResultTemplate {
+
+	// the same pattern PlaceholderAPI looks for
+	private static final Pattern PLACEHOLDER = Pattern.compile("[%]([^%]+)[%]");
+
+	private final ItemStack base;
+	private final boolean placeholders;
+
+	public ResultTemplate(ItemStack result) {
+		base = result.clone();
+		placeholders = hasPlaceholders(base);
+	}
+
+	private static boolean hasPlaceholders(ItemStack item) {
+		if (!item.hasItemMeta() || !item.getItemMeta().hasLore())
+			return false;
+
+		for (String line : item.getItemMeta().getLore()) {
+			if (PLACEHOLDER.matcher(line).find())
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Getter for the shared result, for inventories and comparisons
+	 *
+	 * @returns the base stack, do not modify
+	 */
+	public ItemStack getBase() {
+		return base;
+	}
+
+	/**
+	 * Getter for checking if the result lore has player placeholders
+	 *
+	 * @returns true if the result is personalized per player, false otherwise
+	 */
+	public boolean hasPlaceholders() {
+		return placeholders;
+	}
+
+	/**
+	 * Creates the result for a player, with the placeholders of its lore set
+	 *
+	 * @param p the player the result is for, can be null
+	 * @returns a new ItemStack
+	 */
+	public ItemStack create(Player p) {
+		ItemStack item = base.clone();
+		if (!placeholders || p == null || Bukkit.getPluginManager().getPlugin("PlaceholderAPI") == null)
+			return item;
+
+		ItemMeta itemMeta = item.getItemMeta();
+		List<String> withPlaceholders = PlaceholderAPI.setPlaceholders(p, itemMeta.getLore());
+		itemMeta.setLore(withPlaceholders);
+		item.setItemMeta(itemMeta);
+		return item;
+	}
+}
@@ -0,0 +1,175 @@
+package me.mehboss.utils;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The features of the running server version, resolved once when the plugin
+ * enables instead of parsing the Bukkit version on every check.
+ */
+public final class ServerCapabilities {
+
+	private final int major;
+	private final int minor;
+
+	private final boolean blocking;
+	private final boolean namespacedKeys;
+	private final boolean attributes;
+	private final boolean trident;
+	private final boolean customModelData;
+	private final boolean itemFlags;
+	private final boolean stonecutter;
+	private final boolean tabCompletion;
+	private final boolean itemInUse;
+
+	public ServerCapabilities(int major, int minor) {
+		this.major = major;
+		this.minor = minor;
+
+		blocking = atLeast(1, 10);
+		namespacedKeys = atLeast(1, 12);
+		attributes = atLeast(1, 12);
+		trident = atLeast(1, 13);
+		customModelData = atLeast(1, 14);
+		itemFlags = atLeast(1, 14);
+		stonecutter = atLeast(1, 14);
+		tabCompletion = atLeast(1, 15);
+		itemInUse = atLeast(1, 17);
+	}
+
+	/**
+	 * Parses a Bukkit version string
+	 *
+	 * @param bukkitVersion the version, for example 1.14-R0.1-SNAPSHOT
+	 * @returns the capabilities of that version, none if it could not be parsed
+	 */
+	public static ServerCapabilities parse(String bukkitVersion) {
+		int major = -1;
+		int minor = -1;
+
+		// Split by "-" to get the version part before the hyphen
+		String[] version = bukkitVersion.split("-")[0].split("\\.");
+		try {
+			major = Integer.parseInt(version[0]);
+			if (version.length > 1)
+				minor = Integer.parseInt(version[1]);
+		} catch (NumberFormatException e) {
+			Logger.getLogger("Minecraft").log(Level.WARNING,
+					"[CustomRecipes] Error parsing server version numbers: " + bukkitVersion);
+		}
+
+		return new ServerCapabilities(major, minor);
+	}
+
+	/**
+	 * Getter for checking if the server is at least a version
+	 *
+	 * @param major the major version, for example the 1 in 1.14
+	 * @param minor the minor version, for example the 14 in 1.14
+	 * @returns true if the server version is the same or newer, false otherwise
+	 */
+	public boolean atLeast(int major, int minor) {
+		if (this.major != major)
+			return this.major > major;
+		return this.minor >= minor;
+	}
+
+	/**
+	 * Getter for the major server version
+	 *
+	 * @returns the major version, for example the 1 in 1.14, -1 if unknown
+	 */
+	public int getMajor() {
+		return major;
+	}
+
+	/**
+	 * Getter for the minor server version
+	 *
+	 * @returns the minor version, for example the 14 in 1.14, -1 if unknown
+	 */
+	public int getMinor() {
+		return minor;
+	}
+
+	/**
+	 * Getter for shield blocking (1.10+)
+	 *
+	 * @returns true if shields can block, false otherwise
+	 */
+	public boolean hasBlocking() {
+		return blocking;
+	}
+
+	/**
+	 * Getter for NamespacedKey recipes (1.12+)
+	 *
+	 * @returns true if recipes are registered with a NamespacedKey, false otherwise
+	 */
+	public boolean hasNamespacedKeys() {
+		return namespacedKeys;
+	}
+
+	/**
+	 * Getter for item attribute modifiers (1.12+)
+	 *
+	 * @returns true if items can carry attribute modifiers, false otherwise
+	 */
+	public boolean hasAttributes() {
+		return attributes;
+	}
+
+	/**
+	 * Getter for tridents (1.13+)
+	 *
+	 * @returns true if the trident material exists, false otherwise
+	 */
+	public boolean hasTrident() {
+		return trident;
+	}
+
+	/**
+	 * Getter for custom model data (1.14+)
+	 *
+	 * @returns true if items can have custom model data, false otherwise
+	 */
+	public boolean hasCustomModelData() {
+		return customModelData;
+	}
+
+	/**
+	 * Getter for applying item flags from the recipe files (1.14+)
+	 *
+	 * @returns true if the item flags of a recipe file are applied, false otherwise
+	 */
+	public boolean hasItemFlags() {
+		return itemFlags;
+	}
+
+	/**
+	 * Getter for stonecutter recipes (1.14+)
+	 *
+	 * @returns true if stonecutter recipes can be registered, false otherwise
+	 */
+	public boolean hasStonecutter() {
+		return stonecutter;
+	}
+
+	/**
+	 * Getter for the command tab completer (1.15+)
+	 *
+	 * @returns true if the tab completer is registered, false otherwise
+	 */
+	public boolean hasTabCompletion() {
+		return tabCompletion;
+	}
+
+	/**
+	 * Getter for HumanEntity#getItemInUse (1.17+)
+	 *
+	 * @returns true if HumanEntity#getItemInUse exists, false otherwise
+	 */
+	public boolean hasItemInUse() {
+		return itemInUse;
+	}
+}